@@ -0,0 +1,80 @@
+package com.example.CRUDG.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.CRUDG.security.JwtFilter;
+import com.example.CRUDG.security.JwtUtil;
+import com.example.CRUDG.security.RouteTable;
+import com.example.CRUDG.service.PasswordService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Construye los componentes de CRUDG sin contexto de Spring: los campos
+ * {@code @Autowired} se rellenan por reflexión.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static JwtUtil jwtUtil() {
+        JwtUtil jwtUtil = new JwtUtil();
+        invoke(jwtUtil, "initCache");
+        return jwtUtil;
+    }
+
+    static JwtFilter jwtFilter(JwtUtil jwtUtil) {
+        JwtFilter filter = new JwtFilter();
+        inject(filter, "jwtUtil", jwtUtil);
+        inject(filter, "routeTable", new RouteTable());
+        inject(filter, "meterRegistry", new SimpleMeterRegistry());
+        invoke(filter, "initMetrics");
+        return filter;
+    }
+
+    static PasswordService passwordService(int bcryptStrength, ThreadPoolTaskExecutor executor) {
+        PasswordService service = new PasswordService();
+        inject(service, "passwordEncoder", new BCryptPasswordEncoder(bcryptStrength));
+        inject(service, "passwordHashExecutor", executor);
+        inject(service, "importHashExecutor", executor);
+        inject(service, "meterRegistry", new SimpleMeterRegistry());
+        invoke(service, "initMetrics");
+        return service;
+    }
+
+    static ThreadPoolTaskExecutor hashExecutor(int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1024);
+        executor.setThreadNamePrefix("bench-hash-");
+        executor.initialize();
+        return executor;
+    }
+
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo inyectar " + fieldName, e);
+        }
+    }
+
+    static void invoke(Object target, String methodName) {
+        try {
+            Method method = target.getClass().getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            method.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se pudo invocar " + methodName, e);
+        }
+    }
+
+}
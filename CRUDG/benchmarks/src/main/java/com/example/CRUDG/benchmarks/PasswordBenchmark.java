@@ -0,0 +1,59 @@
+package com.example.CRUDG.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.example.CRUDG.service.PasswordService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int strength;
+
+    private ThreadPoolTaskExecutor executor;
+    private PasswordService passwordService;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        executor = Fixtures.hashExecutor(Runtime.getRuntime().availableProcessors());
+        passwordService = Fixtures.passwordService(strength, executor);
+        hash = new BCryptPasswordEncoder(strength).encode("ClaveSegura123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public boolean checkPassword() {
+        return passwordService.checkPassword("ClaveSegura123", hash);
+    }
+
+    @Benchmark
+    public String hashPassword() {
+        return passwordService.hashPassword("ClaveSegura123");
+    }
+
+}
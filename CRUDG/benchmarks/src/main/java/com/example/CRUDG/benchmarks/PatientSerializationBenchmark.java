@@ -0,0 +1,56 @@
+package com.example.CRUDG.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.CRUDG.entity.Patient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PatientSerializationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int rows;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<Patient> patients;
+
+    @Setup
+    public void setUp() {
+        patients = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            Patient patient = new Patient();
+            patient.setId((long) i);
+            patient.setName("Paciente " + i);
+            patient.setEmailAddress("paciente" + i + "@vitalapp.com");
+            patient.setPhone("55" + (10000000 + i));
+            patient.setPassword("$2a$10$abcdefghijklmnopqrstuuH0m3bvHqSfgxS0QbWnB0t6G9m1lI6Xu");
+            patients.add(patient);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patients);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.CRUDG.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.CRUDG.service.AppointmentSlotIndex;
+
+/**
+ * Contención sobre la agenda: todos los hilos pelean por los huecos de un mismo
+ * doctor y día (doctors=1) o se reparten entre varios doctores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class SlotBookingBenchmark {
+
+    @Param({"1", "64"})
+    public int doctors;
+
+    private AppointmentSlotIndex slotIndex;
+    private LocalDateTime dayStart;
+
+    @Setup
+    public void setUp() {
+        slotIndex = new AppointmentSlotIndex();
+        Fixtures.invoke(slotIndex, "init");
+        dayStart = LocalDate.now().plusDays(1).atTime(LocalTime.of(8, 0));
+    }
+
+    // Reserva un hueco al azar y, si lo gana, lo libera (reserva + cancelación)
+    @Benchmark
+    public boolean reserveAndRelease() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long doctorId = random.nextInt(doctors);
+        LocalDateTime slot = dayStart.plusMinutes(30L * random.nextInt(24));
+        boolean won = slotIndex.tryReserve(doctorId, slot);
+        if (won) {
+            slotIndex.clear(doctorId, slot);
+        }
+        return won;
+    }
+
+}
@@ -0,0 +1,89 @@
+#!/usr/bin/env bash
+# Compara tiempo de arranque y RSS de CRUDG en JVM, JVM con AOT + CDS e imagen nativa.
+#
+#   ./mvnw -Paot package                 # jar (con código AOT) y target/extracted con application.jsa
+#   ./mvnw -Pnative native:compile       # opcional: target/CRUDG
+#   docker compose up -d mysql           # desde la raíz del repo (MySQL en localhost:3307)
+#   scripts/compare-startup.sh [repeticiones]
+#
+# Las variantes que no estén construidas se saltan. Con EXTRA_ARGS se pueden añadir
+# propiedades a las tres, p. ej. EXTRA_ARGS="--spring.jpa.hibernate.ddl-auto=none"
+# para medir sin la comprobación del esquema.
+#
+# Referencia (1 vCPU, JDK 17.0.9, MariaDB 11.4 local, 3 arranques, sin imagen nativa):
+#   jvm           22.54 s   282 MB
+#   jvm-aot-cds    9.94 s   272 MB
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS="${1:-5}"
+JAR="target/CRUDG-0.0.1-SNAPSHOT.jar"
+EXTRACTED="target/extracted"
+NATIVE="target/CRUDG"
+PORT="${PORT:-18080}"
+
+export SPRING_DATASOURCE_URL="${SPRING_DATASOURCE_URL:-jdbc:mysql://localhost:3307/CRUDG?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true}"
+export SPRING_DATASOURCE_USERNAME="${SPRING_DATASOURCE_USERNAME:-root}"
+export SPRING_DATASOURCE_PASSWORD="${SPRING_DATASOURCE_PASSWORD:-root}"
+COMMON_ARGS=(--server.port="$PORT" --spring.docker.compose.enabled=false ${EXTRA_ARGS:-})
+
+# Arranca el comando, espera la línea "Started CrudgApplication in X seconds" y
+# mide el RSS una vez el contexto está listo. Imprime "<segundos> <rss_kb>"
+measure() {
+    local dir="$1"; shift
+    local log
+    log="$(mktemp)"
+    (cd "$dir" && exec "$@" "${COMMON_ARGS[@]}") >"$log" 2>&1 &
+    local pid=$!
+    local started=""
+    for _ in $(seq 1 600); do
+        started="$(grep -oE 'Started CrudgApplication in [0-9.]+' "$log" | awk '{print $4}' || true)"
+        [[ -n "$started" ]] && break
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "El proceso terminó antes de arrancar:" >&2
+            tail -20 "$log" >&2
+            rm -f "$log"
+            return 1
+        fi
+        sleep 0.1
+    done
+    sleep 1
+    local rss
+    rss="$(ps -o rss= -p "$pid" | tr -d ' ')"
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    rm -f "$log"
+    echo "$started $rss"
+}
+
+report() {
+    local name="$1" dir="$2"; shift 2
+    local total_s=0 total_rss=0 line s rss
+    for i in $(seq 1 "$RUNS"); do
+        line="$(measure "$dir" "$@")"
+        read -r s rss <<<"$line"
+        total_s="$(awk -v a="$total_s" -v b="$s" 'BEGIN { print a + b }')"
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-12s %10.2f s %10d MB\n' "$name" "$(awk -v a="$total_s" -v n="$RUNS" 'BEGIN { print a / n }')" $((total_rss / RUNS / 1024))
+}
+
+printf '%-12s %12s %13s   (media de %s arranques)\n' "variante" "arranque" "RSS" "$RUNS"
+
+if [[ -f "$JAR" ]]; then
+    report "jvm" . java -jar "$JAR"
+else
+    echo "Falta $JAR: ./mvnw -Paot package" >&2
+fi
+
+if [[ -f "$EXTRACTED/application.jsa" ]]; then
+    report "jvm-aot-cds" "$EXTRACTED" java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$(basename "$JAR")"
+else
+    echo "Sin $EXTRACTED/application.jsa: se omite jvm-aot-cds" >&2
+fi
+
+if [[ -x "$NATIVE" ]]; then
+    report "native" . "$NATIVE"
+else
+    echo "Sin $NATIVE: se omite native" >&2
+fi
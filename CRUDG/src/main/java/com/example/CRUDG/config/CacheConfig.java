@@ -0,0 +1,12 @@
+package com.example.CRUDG.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// Cachés definidas en application.properties (spring.cache.*)
+@Configuration
+@EnableCaching
+
+public class CacheConfig {
+
+}
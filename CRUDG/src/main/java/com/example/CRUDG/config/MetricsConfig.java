@@ -0,0 +1,19 @@
+package com.example.CRUDG.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+
+public class MetricsConfig {
+
+    // 🔹 Habilita @Timed en los servicios (crudg.service con tags class/method)
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+}
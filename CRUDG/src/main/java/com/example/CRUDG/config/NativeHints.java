@@ -0,0 +1,108 @@
+package com.example.CRUDG.config;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.data.projection.TargetAware;
+
+import com.example.CRUDG.entity.Admin;
+import com.example.CRUDG.entity.Appointment;
+import com.example.CRUDG.entity.AuditEntry;
+import com.example.CRUDG.entity.Doctor;
+import com.example.CRUDG.entity.Patient;
+import com.example.CRUDG.entity.PatientTimelineEntry;
+import com.example.CRUDG.entity.Treatment;
+import com.example.CRUDG.entity.TreatmentMedicine;
+import com.example.CRUDG.repository.AdminSummary;
+import com.example.CRUDG.repository.CredentialView;
+import com.example.CRUDG.repository.DoctorSummary;
+import com.example.CRUDG.repository.PageStamp;
+import com.example.CRUDG.repository.PatientContact;
+import com.example.CRUDG.repository.PatientSummary;
+import com.example.CRUDG.repository.TreatmentRow;
+import com.example.CRUDG.repository.VersionStamp;
+import com.example.CRUDG.service.ImportReport;
+import com.example.CRUDG.service.TreatmentView;
+
+/**
+ * Pistas de reflexión para el procesado AOT y la imagen nativa (perfiles aot y native).
+ * En la JVM normal no hacen nada.
+ *
+ * Spring ya registra lo que deduce de los beans; aquí va lo que no puede ver: entidades
+ * que Jackson serializa detrás de ResponseEntity<?> o List<?>, proyecciones pedidas con
+ * Class<T> en tiempo de ejecución, y las clases que jjwt y el driver de MySQL cargan por
+ * nombre.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // Entidades Lombok @Data: Hibernate accede a los campos, Jackson a getters y setters
+    private static final Class<?>[] ENTITIES = {
+            Admin.class, Appointment.class, AuditEntry.class, Doctor.class, Patient.class,
+            PatientTimelineEntry.class, Treatment.class, TreatmentMedicine.class
+    };
+
+    // Proyecciones de Spring Data: proxies JDK que Jackson recorre por sus getters
+    private static final Class<?>[] PROJECTIONS = {
+            AdminSummary.class, CredentialView.class, DoctorSummary.class, PageStamp.class,
+            PatientContact.class, PatientSummary.class, TreatmentRow.class, VersionStamp.class
+    };
+
+    private static final Class<?>[] RESPONSES = {
+            ImportReport.class, TreatmentView.class
+    };
+
+    // jjwt 0.11: Jwts crea builder y parser por nombre y busca el (de)serializador con ServiceLoader
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    // Connector/J instancia por nombre el tipo de URL, el socket factory y el logger
+    private static final String[] MYSQL_TYPES = {
+            "com.mysql.cj.jdbc.Driver",
+            "com.mysql.cj.conf.url.SingleConnectionUrl",
+            "com.mysql.cj.protocol.StandardSocketFactory",
+            "com.mysql.cj.log.StandardLogger",
+            "com.mysql.cj.log.Slf4JLogger"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        bindings.registerReflectionHints(hints.reflection(), ENTITIES);
+        bindings.registerReflectionHints(hints.reflection(), RESPONSES);
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+
+        for (Class<?> projection : PROJECTIONS) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(projection, TargetAware.class));
+        }
+
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        for (String type : MYSQL_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        hints.resources().registerResourceBundle("com.mysql.cj.LocalizedErrorMessages");
+    }
+
+}
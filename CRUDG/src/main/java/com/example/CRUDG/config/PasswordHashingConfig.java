@@ -0,0 +1,57 @@
+package com.example.CRUDG.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+
+public class PasswordHashingConfig {
+
+    // 🔹 Executor acotado para BCrypt: tamaño fijo y cola limitada.
+    // Si la cola está llena se rechaza la tarea (TaskRejectedException) en vez de bloquear.
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${crudg.password.pool-size:4}") int poolSize,
+            @Value("${crudg.password.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.initialize();
+
+        Gauge.builder("crudg.password.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Tareas BCrypt esperando en la cola")
+                .register(meterRegistry);
+        Gauge.builder("crudg.password.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Hilos ejecutando BCrypt")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    // 🔹 Executor propio para los hashes de la importación masiva: no compite con el login
+    // (passwordHashExecutor) ni con el ForkJoinPool común. Con la cola llena la tarea se
+    // ejecuta en el hilo que importa, que así frena en vez de fallar.
+    @Bean(name = "importHashExecutor")
+    public ThreadPoolTaskExecutor importHashExecutor(
+            @Value("${crudg.import.hash-pool-size:2}") int poolSize,
+            @Value("${crudg.import.hash-queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("import-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.CRUDG.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Separación lectura/escritura. Solo se activa si se define crudg.datasource.replica.url;
+ * sin ella se usa el DataSource autoconfigurado de siempre.
+ *
+ * 🔹 El DataSource de la aplicación es un LazyConnectionDataSourceProxy: la conexión física
+ * se pide en la primera sentencia, cuando la transacción ya marcó la conexión como
+ * readOnly. Las transacciones @Transactional(readOnly = true) van a la réplica (o al
+ * primario si va retrasada); el resto, y el DDL de Hibernate, al primario.
+ */
+@Configuration
+@ConditionalOnProperty(name = "crudg.datasource.replica.url")
+
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("crudg-primary");
+        return dataSource;
+    }
+
+    // Usuario, clave y driver se heredan del primario salvo que se indiquen
+    @Bean
+    @ConfigurationProperties("crudg.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${crudg.datasource.replica.url}") String url,
+            @Value("${crudg.datasource.replica.username:}") String username,
+            @Value("${crudg.datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setJdbcUrl(url);
+        if (!username.isEmpty()) dataSource.setUsername(username);
+        if (!password.isEmpty()) dataSource.setPassword(password);
+        dataSource.setReadOnly(true);
+        dataSource.setPoolName("crudg-replica");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+            @Value("${crudg.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+            @Value("${crudg.datasource.replica.lag-column:Seconds_Behind_Source}") String lagColumn,
+            @Value("${crudg.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+            MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, lagColumn, maxLagSeconds);
+        Gauge.builder("crudg.datasource.replica.lag", monitor, ReplicaLagMonitor::getLagSeconds)
+                .description("Segundos de retraso de la réplica (-1 si no está disponible)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("crudg.datasource.replica.usable", monitor, m -> m.isReplicaUsable() ? 1 : 0)
+                .description("1 si las lecturas se están enviando a la réplica")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource readOnly = new ReplicaRoutingDataSource(primary, replica, replicaLagMonitor, meterRegistry);
+        readOnly.afterPropertiesSet();
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(readOnly);
+        return proxy;
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.example.CRUDG.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Comprueba periódicamente el retraso de la réplica. Mientras no esté disponible o vaya
+ * por detrás más de maxLagSeconds, las lecturas vuelven al primario.
+ *
+ * lagQuery vacío: solo se comprueba que la réplica responda (p. ej. dos H2 en local).
+ * Un resultado vacío (servidor que no es réplica) cuenta como retraso 0.
+ */
+public class ReplicaLagMonitor {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+
+    // Hasta el primer chequeo todo va al primario
+    private volatile boolean usable = false;
+    private volatile long lagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn, long maxLagSeconds) {
+        this.replica = replica;
+        this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${crudg.datasource.replica.lag-check-ms:2000}")
+    public void check() {
+        long lag;
+        try (Connection connection = replica.getConnection()) {
+            lag = lagQuery.isEmpty() ? (connection.isValid(1) ? 0 : -1) : queryLag(connection);
+        } catch (SQLException e) {
+            lag = -1;
+        }
+        lagSeconds = lag;
+        usable = lag >= 0 && lag <= maxLagSeconds;
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) return 0;
+            long lag = rs.getLong(lagColumn);
+            // NULL: el hilo de replicación está detenido
+            return rs.wasNull() ? -1 : lag;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /** Segundos de retraso del último chequeo; -1 si la réplica no respondió o no replica. */
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+}
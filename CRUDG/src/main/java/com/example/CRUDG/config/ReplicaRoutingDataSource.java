@@ -0,0 +1,51 @@
+package com.example.CRUDG.config;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Destino de las conexiones de solo lectura: la réplica si el monitor la da por buena,
+ * si no el primario.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter toReplica;
+    private final Counter toPrimary;
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                             MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        this.toReplica = Counter.builder("crudg.datasource.readonly")
+                .description("Conexiones de solo lectura por destino")
+                .tag("target", REPLICA)
+                .register(meterRegistry);
+        this.toPrimary = Counter.builder("crudg.datasource.readonly")
+                .description("Conexiones de solo lectura por destino")
+                .tag("target", PRIMARY)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (lagMonitor.isReplicaUsable()) {
+            toReplica.increment();
+            return REPLICA;
+        }
+        toPrimary.increment();
+        return PRIMARY;
+    }
+
+}
@@ -12,7 +12,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
+import com.example.CRUDG.security.BcryptCostCalibrator;
 import com.example.CRUDG.security.JwtFilter;
+import com.example.CRUDG.security.PasswordEncoders;
+import com.example.CRUDG.security.RateLimitFilter;
+import com.example.CRUDG.security.RouteTable;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import java.util.Arrays;
@@ -30,34 +34,30 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private RouteTable routeTable;
+
 
     
    
 
-    // 🔹 Permitir acceso libre a todos los endpoints
+    // 🔹 Cadena de seguridad: CORS, sin sesión, rate limit y JWT
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             //.cors(cors -> {})
             .csrf(csrf -> csrf.disable())  // desactiva CSRF (útil para pruebas con Postman)
-            .authorizeHttpRequests(auth -> auth
-            // permite preflight requests
-            //.requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
-            //endpoinds publicos
-                .requestMatchers("/api/v1/auth/**").permitAll()
-                .requestMatchers("/api/v1/patients/register").permitAll()
-                //edpoinds protegisdos por rol
-                .requestMatchers("/api/v1/admin/**", "/api/v1/admin").permitAll()//hasRole("Admin")
-                .requestMatchers("/api/v1/doctor/**", "/api/v1/doctor").permitAll()//hasAnyRole("Admin")
-                .requestMatchers("/api/v1/patient/**", "/api/v1/patient").permitAll()
-                //.requestMatchers("/api/v1/patients/**").permitAll()//hasAnyRole("Admin","Doctor")
-                .anyRequest().authenticated() // permite todo sin autenticación
-            )
+            // Reglas de acceso (públicas, autenticadas y por rol) definidas solo en RouteTable
+            .authorizeHttpRequests(auth -> auth.anyRequest().access(routeTable))
 
 
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
-            // Registramos el filtro JWT antes del filtro de autenticación por username/password
+            // Rate limit primero (rechazo barato), luego el filtro JWT, ambos antes del filtro de username/password
+        http.addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class);
         http.addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class); 
 
             
@@ -74,14 +74,16 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
+        // Cursor de la siguiente página y validadores de caché (ETag / Last-Modified)
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "ETag", "Last-Modified"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
     }
-    // 🔹 Bean para codificar contraseñas (esto ya lo tenías)
+    // 🔹 Bean para codificar contraseñas: {bcrypt} con el coste calibrado para este nodo
     @Bean
-    public PasswordEncoder passwordEncoder() {
-    return new org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(BcryptCostCalibrator bcryptCostCalibrator) {
+    return PasswordEncoders.delegating(bcryptCostCalibrator.getCost());
     }
 
     @Bean
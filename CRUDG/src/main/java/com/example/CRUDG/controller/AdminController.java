@@ -5,9 +5,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.example.CRUDG.service.AdminService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.CrossOrigin;
-//import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,6 +16,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import java.util.List;
 import com.example.CRUDG.entity.Admin;
+import com.example.CRUDG.repository.AdminSummary;
+import com.example.CRUDG.repository.VersionStamp;
+import org.springframework.web.context.request.WebRequest;
 
 
 
@@ -32,16 +36,40 @@ public class AdminController {
     private AdminService adminService;
 
     
+    // Paginado por cursor: ?after=<último id>&size=<n>&fields=<campos>; sin after ni size, todos
     @GetMapping
-    public List<Admin> getAll() {
-        return adminService.getAllAdmins();
-        // Implementation for retrieving all doctors
+    public ResponseEntity<List<?>> getAll(@RequestParam(value = "after", required = false) Long after,
+                                          @RequestParam(value = "size", required = false) Integer size,
+                                          @RequestParam(value = "fields", required = false) String fields,
+                                          WebRequest request) {
+        long afterId = KeysetPage.after(after);
+        int pageSize = KeysetPage.size(after, size);
+        boolean summary = KeysetPage.coveredBy(fields, AdminSummary.FIELDS);
+        // Si la página no cambió se responde 304 sin leer las filas
+        String etag = EntityTags.of(adminService.getAdminsPageStamp(afterId, pageSize), summary ? "summary" : "full");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (summary) {
+            List<AdminSummary> rows = adminService.getAdminsPage(afterId, pageSize, AdminSummary.class);
+            return KeysetPage.of(rows, pageSize, AdminSummary::getId, etag);
+        }
+        List<Admin> rows = adminService.getAdminsPage(afterId, pageSize, Admin.class);
+        return KeysetPage.of(rows, pageSize, Admin::getId, etag);
     }
 
     @GetMapping("/{adminId}")
-    public Optional <Admin> getBId(@PathVariable("adminId") Long adminId) {
-        return adminService.getAdminById(adminId);
-        // Implementation for retrieving all doctors
+    public ResponseEntity<Admin> getBId(@PathVariable("adminId") Long adminId, WebRequest request) {
+        // If-None-Match se valida contra la versión, sin cargar la entidad completa
+        if (EntityTags.hasIfNoneMatch(request)) {
+            Optional<VersionStamp> stamp = adminService.getAdminStamp(adminId);
+            if (stamp.isPresent() && request.checkNotModified(EntityTags.of(stamp.get()))) {
+                return null;
+            }
+        }
+        return adminService.getAdminById(adminId)
+                .map(admin -> EntityTags.ok(admin, EntityTags.of(admin.getId(), admin.getVersion()), admin.getUpdatedAt()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 
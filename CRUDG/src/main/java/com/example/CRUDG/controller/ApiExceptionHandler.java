@@ -0,0 +1,74 @@
+package com.example.CRUDG.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.example.CRUDG.security.RateLimitedException;
+import com.example.CRUDG.service.EmailTakenException;
+import com.example.CRUDG.service.InvalidAppointmentException;
+import com.example.CRUDG.service.PasswordHashingBusyException;
+import com.example.CRUDG.service.SlotUnavailableException;
+
+@RestControllerAdvice
+
+public class ApiExceptionHandler {
+
+    @Value("${crudg.password.retry-after-seconds:2}")
+    private long passwordRetryAfterSeconds;
+
+    // Pool de BCrypt saturado: 503 inmediato para que el cliente reintente más tarde
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, String>> passwordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordRetryAfterSeconds))
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<Map<String, String>> rateLimited(RateLimitedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(SlotUnavailableException.class)
+    public ResponseEntity<Map<String, String>> slotUnavailable(SlotUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(EmailTakenException.class)
+    public ResponseEntity<Map<String, String>> emailTaken(EmailTakenException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    // Otra petición modificó la fila entre la lectura y el UPDATE (@Version)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> concurrentModification(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "El registro fue modificado por otra petición"));
+    }
+
+    // Comprobaciones de propietario (CurrentUser): autenticado pero sin acceso a ese recurso
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String, String>> accessDenied(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidAppointmentException.class)
+    public ResponseEntity<Map<String, String>> invalidAppointment(InvalidAppointmentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> invalidCursor(InvalidCursorException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+    }
+
+}
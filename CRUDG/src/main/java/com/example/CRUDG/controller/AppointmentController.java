@@ -0,0 +1,68 @@
+package com.example.CRUDG.controller;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.CRUDG.entity.Appointment;
+import com.example.CRUDG.security.CurrentUser;
+import com.example.CRUDG.service.AppointmentService;
+
+
+
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"}, allowCredentials = "true")
+@RestController
+@RequestMapping(path ="api/v1/appointment")
+
+public class AppointmentController {
+    @Autowired
+    private AppointmentService appointmentService;
+
+    // Huecos libres de un doctor en un día: ?doctorId=1&date=2025-03-10
+    @GetMapping("/availability")
+    public List<LocalTime> getAvailability(@RequestParam("doctorId") Long doctorId,
+                                           @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return appointmentService.getAvailability(doctorId, date);
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public List<Appointment> getDoctorAppointments(@PathVariable("doctorId") Long doctorId,
+                                                   @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return appointmentService.getDoctorAppointments(doctorId, date);
+    }
+
+    @GetMapping("/{appointmentId}")
+    public Optional<Appointment> getBId(@PathVariable("appointmentId") Long appointmentId) {
+        Optional<Appointment> appointment = appointmentService.getAppointmentById(appointmentId);
+        appointment.ifPresent(found -> CurrentUser.requirePatientOrStaff(found.getPatientId()));
+        return appointment;
+    }
+
+    @PostMapping
+    public ResponseEntity<Appointment> book(@RequestBody Appointment appointment) {
+        // Un paciente solo reserva a su nombre; doctores y admins para cualquiera
+        CurrentUser.requirePatientOrStaff(appointment.getPatientId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(appointmentService.book(appointment));
+    }
+
+    @PutMapping("/{appointmentId}/cancel")
+    public ResponseEntity<Appointment> cancel(@PathVariable("appointmentId") Long appointmentId) {
+        return ResponseEntity.of(appointmentService.cancel(appointmentId));
+    }
+
+}
@@ -1,13 +1,8 @@
 package com.example.CRUDG.controller;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.CRUDG.entity.Doctor;
-import com.example.CRUDG.entity.Patient;
-import com.example.CRUDG.entity.Admin;
-import com.example.CRUDG.service.AdminService;
-import com.example.CRUDG.service.DoctorService;
-import com.example.CRUDG.service.PasswordService;
-import com.example.CRUDG.service.PatientService;
+import com.example.CRUDG.repository.CredentialView;
+import com.example.CRUDG.service.CredentialService;
 
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +11,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import com.example.CRUDG.security.JwtUtil;
+import com.example.CRUDG.security.RateLimitedException;
+import com.example.CRUDG.security.RateLimiter;
 
 
 
@@ -27,11 +25,9 @@ import com.example.CRUDG.security.JwtUtil;
 @CrossOrigin(origins = "http://localhost:3000") 
 
 public class AuthController {
-     @Autowired private PatientService patientService;
-    @Autowired private DoctorService doctorService;
-    @Autowired private AdminService adminService;
-    @Autowired private PasswordService passwordService;
+    @Autowired private CredentialService credentialService;
     @Autowired private JwtUtil jwtUtil;
+    @Autowired private RateLimiter rateLimiter;
 
 
     @PostMapping("/login")
@@ -39,25 +35,22 @@ public class AuthController {
         String email = body.get("email");
         String password = body.get("password");
 
-        // Buscar como paciente
-         Optional<Patient> p = patientService.findByEmail(email);
-    if (p.isPresent() && passwordService.checkPassword(password, p.get().getPassword())) {
-        String token = jwtUtil.generateToken(p.get().getId(), email, "PATIENT");
-        return ResponseEntity.ok(Map.of("token", token, "role", "PATIENT", "email", email, "id", p.get().getId()));
-    }
-
-        // Buscar como doctor
-       Optional<Doctor> d = doctorService.findByEmail(email);
-    if (d.isPresent() && passwordService.checkPassword(password, d.get().getPassword())) {
-        String token = jwtUtil.generateToken(d.get().getId(), email, "DOCTOR");
-        return ResponseEntity.ok(Map.of("token", token, "role", "DOCTOR", "email", email, "id", d.get().getId()));
-    }
-
-        // Buscar como admin
-        Optional<Admin> a = adminService.findByEmail(email);
-    if (a.isPresent() && passwordService.checkPassword(password, a.get().getPassword())) {
-        String token = jwtUtil.generateToken(a.get().getId(),email, "ADMIN");
-        return ResponseEntity.ok(Map.of("token", token, "role", "ADMIN", "email", email, "id", a.get().getId()));
+        // Límite por cuenta (además del de IP en RateLimitFilter), antes de tocar la BD o BCrypt
+        if (email != null && !email.isBlank()) {
+            long wait = rateLimiter.tryAcquire(RateLimiter.LOGIN_EMAIL, email.trim().toLowerCase(Locale.ROOT));
+            if (wait > 0) {
+                throw new RateLimitedException(RateLimiter.retryAfterSeconds(wait));
+            }
+        }
+
+        // Una sola consulta sobre las tres tablas; BCrypt contra cada cuenta con ese email
+        Optional<CredentialView> credential = credentialService.authenticate(email, password);
+    if (credential.isPresent()) {
+        credentialService.rehashIfNeeded(credential.get(), password);
+        Long id = credential.get().getId();
+        String role = credential.get().getRole();
+        String token = jwtUtil.generateToken(id, email, role);
+        return ResponseEntity.ok(Map.of("token", token, "role", role, "email", email, "id", id));
     }
 
         // No encontrado
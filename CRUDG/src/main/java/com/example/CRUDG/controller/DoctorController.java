@@ -1,16 +1,25 @@
 package com.example.CRUDG.controller;
 
+import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.CRUDG.service.BulkImportService;
+import com.example.CRUDG.service.ExportService;
+import com.example.CRUDG.service.ImportReport;
 import com.example.CRUDG.service.DoctorService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.CrossOrigin;
-//import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +27,9 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import java.util.List;
 import com.example.CRUDG.entity.Doctor;
+import com.example.CRUDG.repository.DoctorSummary;
+import com.example.CRUDG.repository.VersionStamp;
+import org.springframework.web.context.request.WebRequest;
 
 
 
@@ -38,17 +50,80 @@ public class DoctorController {
 
     private DoctorService doctorService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
     
+    // Paginado por cursor: ?after=<último id>&size=<n>&fields=<campos>; sin after ni size, todos
     @GetMapping
-    public List<Doctor> getAll() {
-        return doctorService.getAllDoctors();
-        // Implementation for retrieving all doctors
+    public ResponseEntity<List<?>> getAll(@RequestParam(value = "after", required = false) Long after,
+                                          @RequestParam(value = "size", required = false) Integer size,
+                                          @RequestParam(value = "fields", required = false) String fields,
+                                          WebRequest request) {
+        long afterId = KeysetPage.after(after);
+        int pageSize = KeysetPage.size(after, size);
+        boolean summary = KeysetPage.coveredBy(fields, DoctorSummary.FIELDS);
+        // Si la página no cambió se responde 304 sin leer las filas
+        String etag = EntityTags.of(doctorService.getDoctorsPageStamp(afterId, pageSize), summary ? "summary" : "full");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (summary) {
+            List<DoctorSummary> rows = doctorService.getDoctorsPage(afterId, pageSize, DoctorSummary.class);
+            return KeysetPage.of(rows, pageSize, DoctorSummary::getId, etag);
+        }
+        List<Doctor> rows = doctorService.getDoctorsPage(afterId, pageSize, Doctor.class);
+        return KeysetPage.of(rows, pageSize, Doctor::getId, etag);
+    }
+
+    // Volcado completo en NDJSON para sincronizaciones nocturnas: ?gzip=true para comprimir
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return NdjsonExport.response(gzip ? "doctors.ndjson.gz" : "doctors.ndjson", gzip, exportService::exportDoctors);
+    }
+
+    // Alta masiva: arreglo JSON o CSV con cabecera, devuelve el resultado por fila
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ImportReport bulkImport(HttpServletRequest request) throws IOException {
+        return bulkImportService.importDoctors(request.getInputStream(), request.getContentType());
+    }
+
+    // Búsqueda: ?specialty=<especialidad>&name=<prefijo>&page=<n>&size=<n>
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(value = "specialty", required = false) String specialty,
+                                    @RequestParam(value = "name", required = false) String name,
+                                    @RequestParam(value = "page", defaultValue = "0") int page,
+                                    @RequestParam(value = "size", required = false) Integer size) {
+        if ((specialty == null || specialty.isBlank()) && (name == null || name.isBlank())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Indique specialty o name"));
+        }
+        return ResponseEntity.ok(doctorService.searchDoctors(specialty, name, Math.max(page, 0), KeysetPage.size(size)));
+    }
+
+    // Resolución por lotes para otros servicios: cuerpo = arreglo JSON de ids
+    @PostMapping("/batch")
+    public ResponseEntity<?> getBatch(@RequestBody List<Long> ids) {
+        if (ids.size() > KeysetPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Máximo " + KeysetPage.MAX_SIZE + " ids por petición"));
+        }
+        return ResponseEntity.ok(doctorService.getDoctorsByIds(ids));
     }
 
     @GetMapping("/{doctorId}")
-    public Optional <Doctor> getBId(@PathVariable("doctorId") Long doctorId) {
-        return doctorService.getDoctorById(doctorId);
-        // Implementation for retrieving all doctors
+    public ResponseEntity<Doctor> getBId(@PathVariable("doctorId") Long doctorId, WebRequest request) {
+        // If-None-Match se valida contra la versión, sin cargar la entidad completa
+        if (EntityTags.hasIfNoneMatch(request)) {
+            Optional<VersionStamp> stamp = doctorService.getDoctorStamp(doctorId);
+            if (stamp.isPresent() && request.checkNotModified(EntityTags.of(stamp.get()))) {
+                return null;
+            }
+        }
+        return doctorService.getDoctorById(doctorId)
+                .map(doctor -> EntityTags.ok(doctor, EntityTags.of(doctor.getId(), doctor.getVersion()), doctor.getUpdatedAt()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 
@@ -0,0 +1,61 @@
+package com.example.CRUDG.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.CRUDG.repository.PageStamp;
+import com.example.CRUDG.repository.VersionStamp;
+
+/**
+ * ETag fuertes para lecturas por id y listados paginados.
+ * Por id el ETag es "id-version"; en un listado es un hash de la firma de la página
+ * (filas, id máximo, suma de versiones y última modificación) más la variante pedida.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + (version == null ? 0 : version) + "\"";
+    }
+
+    static String of(VersionStamp stamp) {
+        return of(stamp.getId(), stamp.getVersion());
+    }
+
+    static String of(PageStamp stamp, String variant) {
+        String raw = stamp.getTotal() + ":" + stamp.getMaxId() + ":" + stamp.getVersionSum()
+                + ":" + stamp.getLastModified() + ":" + variant;
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(raw.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Solo consulta la versión si el cliente mandó If-None-Match; así una lectura normal
+     * no paga un query extra.
+     */
+    static boolean hasIfNoneMatch(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    static <T> ResponseEntity<T> ok(T body, String etag, Instant updatedAt) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+        if (updatedAt != null) {
+            response.lastModified(updatedAt);
+        }
+        return response.body(body);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example.CRUDG.controller;
+
+/**
+ * Parámetro after con un cursor que no se puede interpretar. Se traduce a 400.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+}
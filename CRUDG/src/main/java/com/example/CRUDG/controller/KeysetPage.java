@@ -0,0 +1,96 @@
+package com.example.CRUDG.controller;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Utilidades para los listados paginados por cursor.
+ * El cuerpo sigue siendo un arreglo JSON; el cursor de la siguiente página viaja
+ * en la cabecera X-Next-Cursor (ausente en la última página). Los listados sin after
+ * ni size devuelven todas las filas.
+ */
+final class KeysetPage {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_SIZE = 100;
+    static final int MAX_SIZE = 500;
+    // Sin after ni size: lista completa, como antes de paginar (el frontend no lee X-Next-Cursor)
+    static final int UNPAGED = Integer.MAX_VALUE;
+
+    private KeysetPage() {
+    }
+
+    static long after(Long after) {
+        return after == null || after < 0 ? 0L : after;
+    }
+
+    /**
+     * Posición de la última fila en los listados ordenados por fecha y luego por id.
+     * Viaja como "<fecha ISO>_<id>"; START (sin fecha) es la primera página.
+     */
+    record Cursor(LocalDateTime at, long id) {
+
+        static final Cursor START = new Cursor(null, 0L);
+
+        @Override
+        public String toString() {
+            return at + "_" + id;
+        }
+
+    }
+
+    static Cursor cursor(String after) {
+        if (after == null || after.isBlank()) return Cursor.START;
+        int sep = after.lastIndexOf('_');
+        try {
+            return new Cursor(LocalDateTime.parse(after.substring(0, sep)), Long.parseLong(after.substring(sep + 1)));
+        } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Cursor no válido: " + after);
+        }
+    }
+
+    static int size(Long after, Integer size) {
+        if (after == null && size == null) return UNPAGED;
+        return size(size);
+    }
+
+    static int size(Integer size) {
+        if (size == null || size <= 0) return DEFAULT_SIZE;
+        return Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * true si todos los campos pedidos en fields= caben en la proyección ligera.
+     * Sin fields= se devuelve la entidad completa, como hasta ahora.
+     */
+    static boolean coveredBy(String fields, Set<String> projectionFields) {
+        if (fields == null || fields.isBlank()) return false;
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(f -> !f.isEmpty())
+                .allMatch(projectionFields::contains);
+    }
+
+    // cursorOf da el cursor de una fila: su id o un Cursor(fecha, id)
+    static <T> ResponseEntity<List<?>> of(List<T> rows, int size, Function<T, ?> cursorOf) {
+        return of(rows, size, cursorOf, null);
+    }
+
+    static <T> ResponseEntity<List<?>> of(List<T> rows, int size, Function<T, ?> cursorOf, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        if (rows.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(cursorOf.apply(rows.get(rows.size() - 1))));
+        }
+        return response.body(rows);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.example.CRUDG.controller;
+
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Respuesta NDJSON (una entidad JSON por línea) escrita en streaming,
+ * opcionalmente comprimida con gzip.
+ */
+final class NdjsonExport {
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private NdjsonExport() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> response(String filename, boolean gzip, StreamingResponseBody rows) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (!gzip) {
+            return response.body(rows);
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .body(out -> {
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                    rows.writeTo(compressed);
+                    compressed.finish();
+                });
+    }
+
+}
@@ -1,10 +1,16 @@
 package com.example.CRUDG.controller;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.http.ResponseEntity;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,12 +18,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 
+import com.example.CRUDG.service.BulkImportService;
+import com.example.CRUDG.service.ExportService;
+import com.example.CRUDG.service.ImportReport;
 import com.example.CRUDG.service.PatientService;
 import com.example.CRUDG.entity.Patient;
+import com.example.CRUDG.entity.PatientTimelineEntry;
+import com.example.CRUDG.repository.PatientSummary;
+import com.example.CRUDG.repository.VersionStamp;
+import com.example.CRUDG.security.CurrentUser;
+import org.springframework.web.context.request.WebRequest;
 
 
 
@@ -30,16 +46,92 @@ public class PatientController {
     @Autowired
      private PatientService patientService;
 
-     @GetMapping
-    public List<Patient> getAll() {
-        return patientService.getAllPatients();
-        
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    // Paginado por cursor: ?after=<último id>&size=<n>&fields=<campos>; sin after ni size, todos
+    @GetMapping
+    public ResponseEntity<List<?>> getAll(@RequestParam(value = "after", required = false) Long after,
+                                          @RequestParam(value = "size", required = false) Integer size,
+                                          @RequestParam(value = "fields", required = false) String fields,
+                                          WebRequest request) {
+        long afterId = KeysetPage.after(after);
+        int pageSize = KeysetPage.size(after, size);
+        boolean summary = KeysetPage.coveredBy(fields, PatientSummary.FIELDS);
+        // Si la página no cambió se responde 304 sin leer las filas
+        String etag = EntityTags.of(patientService.getPatientsPageStamp(afterId, pageSize), summary ? "summary" : "full");
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (summary) {
+            List<PatientSummary> rows = patientService.getPatientsPage(afterId, pageSize, PatientSummary.class);
+            return KeysetPage.of(rows, pageSize, PatientSummary::getId, etag);
+        }
+        List<Patient> rows = patientService.getPatientsPage(afterId, pageSize, Patient.class);
+        return KeysetPage.of(rows, pageSize, Patient::getId, etag);
+    }
+
+    // Volcado completo en NDJSON para sincronizaciones nocturnas: ?gzip=true para comprimir
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return NdjsonExport.response(gzip ? "patients.ndjson.gz" : "patients.ndjson", gzip, exportService::exportPatients);
+    }
+
+    // Alta masiva: arreglo JSON o CSV con cabecera, devuelve el resultado por fila
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ImportReport bulkImport(HttpServletRequest request) throws IOException {
+        return bulkImportService.importPatients(request.getInputStream(), request.getContentType());
+    }
+
+    // Resolución por lotes para otros servicios: cuerpo = arreglo JSON de ids
+    @PostMapping("/batch")
+    public ResponseEntity<?> getBatch(@RequestBody List<Long> ids) {
+        if (ids.size() > KeysetPage.MAX_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Máximo " + KeysetPage.MAX_SIZE + " ids por petición"));
+        }
+        return ResponseEntity.ok(patientService.getPatientsByIds(ids));
+    }
+
+    // Búsqueda en recepción por nombre, email o teléfono parcial: ?q=<texto>&limit=<n>
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam("q") String q,
+                                    @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (!patientService.isSearchReady()) {
+            // El índice se carga al arrancar; mientras tanto no se recorre la tabla
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("error", "Índice de búsqueda cargando"));
+        }
+        return ResponseEntity.ok(patientService.search(q, Math.min(Math.max(limit, 1), KeysetPage.MAX_SIZE)));
+    }
+
+    // Historia clínica del paciente, más reciente primero: ?after=<X-Next-Cursor anterior>&size=<n>
+    @GetMapping("/{patientId}/timeline")
+    public ResponseEntity<List<?>> getTimeline(@PathVariable("patientId") Long patientId,
+                                               @RequestParam(value = "after", required = false) String after,
+                                               @RequestParam(value = "size", required = false) Integer size) {
+        // Diagnósticos y medicamentos: el propio paciente, doctores y administradores
+        CurrentUser.requirePatientOrStaff(patientId);
+        int pageSize = KeysetPage.size(size);
+        KeysetPage.Cursor cursor = KeysetPage.cursor(after);
+        List<PatientTimelineEntry> rows = patientService.getTimeline(patientId, cursor.at(), cursor.id(), pageSize);
+        return KeysetPage.of(rows, pageSize, e -> new KeysetPage.Cursor(e.getEventAt(), e.getId()));
     }
 
     @GetMapping("/{patientId}")
-    public Optional <Patient> getBId(@PathVariable("patientId") Long patientId) {
-        return patientService.getPatientById(patientId);
-        
+    public ResponseEntity<Patient> getBId(@PathVariable("patientId") Long patientId, WebRequest request) {
+        // If-None-Match se valida contra la versión, sin cargar la entidad completa
+        if (EntityTags.hasIfNoneMatch(request)) {
+            Optional<VersionStamp> stamp = patientService.getPatientStamp(patientId);
+            if (stamp.isPresent() && request.checkNotModified(EntityTags.of(stamp.get()))) {
+                return null;
+            }
+        }
+        return patientService.getPatientById(patientId)
+                .map(patient -> EntityTags.ok(patient, EntityTags.of(patient.getId(), patient.getVersion()), patient.getUpdatedAt()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 
@@ -0,0 +1,62 @@
+package com.example.CRUDG.controller;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.CRUDG.entity.Treatment;
+import com.example.CRUDG.security.CurrentUser;
+import com.example.CRUDG.service.TreatmentService;
+import com.example.CRUDG.service.TreatmentView;
+
+/**
+ * Historial de recetas (solo lectura; las altas siguen en treatments-api).
+ * Paginado por cursor: ?after=<X-Next-Cursor anterior>&size=<n>, más reciente primero.
+ */
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"}, allowCredentials = "true")
+@RestController
+@RequestMapping(path ="api/v1/treatment")
+
+public class TreatmentController {
+    @Autowired
+    private TreatmentService treatmentService;
+
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<List<?>> getPatientTreatments(@PathVariable("patientId") Long patientId,
+                                                        @RequestParam(value = "after", required = false) String after,
+                                                        @RequestParam(value = "size", required = false) Integer size) {
+        // Recetas de un paciente: el propio paciente, doctores y administradores
+        CurrentUser.requirePatientOrStaff(patientId);
+        int pageSize = KeysetPage.size(size);
+        KeysetPage.Cursor cursor = KeysetPage.cursor(after);
+        List<TreatmentView> rows = treatmentService.getPatientTreatments(patientId, cursor.at(), cursor.id(), pageSize);
+        return KeysetPage.of(rows, pageSize, t -> new KeysetPage.Cursor(t.createdAt(), t.id()));
+    }
+
+    @GetMapping("/doctor/{doctorId}")
+    public ResponseEntity<List<?>> getDoctorTreatments(@PathVariable("doctorId") Long doctorId,
+                                                       @RequestParam(value = "after", required = false) String after,
+                                                       @RequestParam(value = "size", required = false) Integer size) {
+        int pageSize = KeysetPage.size(size);
+        KeysetPage.Cursor cursor = KeysetPage.cursor(after);
+        List<TreatmentView> rows = treatmentService.getDoctorTreatments(doctorId, cursor.at(), cursor.id(), pageSize);
+        return KeysetPage.of(rows, pageSize, t -> new KeysetPage.Cursor(t.createdAt(), t.id()));
+    }
+
+    @GetMapping("/appointment/{appointmentId}")
+    public ResponseEntity<Treatment> getByAppointment(@PathVariable("appointmentId") Long appointmentId) {
+        // El paciente se conoce al cargar la receta: se comprueba antes de devolverla
+        Optional<Treatment> treatment = treatmentService.getTreatmentByAppointment(appointmentId);
+        treatment.ifPresent(found -> CurrentUser.requirePatientOrStaff(found.getPatientId()));
+        return ResponseEntity.of(treatment);
+    }
+
+}
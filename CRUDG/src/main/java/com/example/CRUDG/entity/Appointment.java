@@ -0,0 +1,51 @@
+package com.example.CRUDG.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.Data;
+
+@Data
+@Entity
+@Table(name="tbl_appointment", uniqueConstraints = {
+    // Un doctor no puede tener dos citas a la misma hora
+    @UniqueConstraint(name = "uk_doctor_time", columnNames = {"doctor_id", "appointment_datetime"})
+})
+
+public class Appointment {
+    public static final String PENDING = "PENDING";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(name = "appointment_datetime", nullable = false)
+    private LocalDateTime appointmentDatetime;
+
+    @Column(length = 500)
+    private String reason;
+
+    @Column(length = 50)
+    private String status;
+
+    // Bloqueo optimista; el DEFAULT cubre las filas existentes y las insertadas por la API de citas
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
+}
@@ -0,0 +1,43 @@
+package com.example.CRUDG.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Registro de auditoría (solo inserción). Lo escribe AuditLog por JDBC en lotes;
+ * la entidad existe para que Hibernate cree la tabla.
+ */
+@Data
+@Entity
+@Table(name="tbl_audit_log", indexes = {
+    @Index(name = "idx_audit_entity", columnList = "entity_type, entity_id")
+})
+
+public class AuditEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private String entityType;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(nullable = false, length = 16)
+    private String action;
+
+    private String actor;
+
+}
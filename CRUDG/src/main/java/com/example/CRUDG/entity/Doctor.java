@@ -5,13 +5,21 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*;
 import lombok.Data;
 @Data
 @Entity
-@Table(name="tbl_doctor")
+@Table(name="tbl_doctor", indexes = {
+    // Búsqueda por especialidad (+ prefijo de nombre) y por prefijo de nombre
+    @Index(name = "idx_doctor_specialty_name", columnList = "specialty, name"),
+    @Index(name = "idx_doctor_name", columnList = "name")
+})
 public class Doctor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,8 +36,14 @@ public class Doctor {
     private String phoneNumber;
 
     private String specialty;
-    
-   
 
-    
+    // Bloqueo optimista y ETag; el DEFAULT cubre las filas que ya existían
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
 }
@@ -1,5 +1,9 @@
 package com.example.CRUDG.entity;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.Entity;
@@ -7,6 +11,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Data;
 
 @Data
@@ -29,4 +34,13 @@ public class Patient {
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
+    // Bloqueo optimista y ETag; el DEFAULT cubre las filas que ya existían
+    @Version
+    @jakarta.persistence.Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
+    @UpdateTimestamp
+    @jakarta.persistence.Column(name = "updated_at")
+    private Instant updatedAt;
+
 }
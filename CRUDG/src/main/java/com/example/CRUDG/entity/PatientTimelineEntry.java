@@ -0,0 +1,66 @@
+package com.example.CRUDG.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * Historia clínica desnormalizada: una fila por cita, receta o medicamento de un paciente.
+ * La mantienen los triggers que instala PatientTimelineInstaller (cubren también las
+ * escrituras de appointments-api y treatments-api); aquí es solo lectura.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name="tbl_patient_timeline", indexes = {
+    // La página del historial es un range scan sobre este índice
+    @Index(name = "idx_timeline_patient_event", columnList = "patient_id, event_at, id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_timeline_source", columnNames = {"kind", "source_id"})
+})
+
+public class PatientTimelineEntry {
+    public static final String APPOINTMENT = "APPOINTMENT";
+    public static final String TREATMENT = "TREATMENT";
+    public static final String MEDICINE = "MEDICINE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "event_at", nullable = false)
+    private LocalDateTime eventAt;
+
+    @Column(nullable = false, length = 16)
+    private String kind;
+
+    // id en tbl_appointment, tbl_treatment o tbl_treatment_medicine según kind
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    // Cita de una receta, receta de un medicamento
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    private String title;
+
+    @Column(length = 500)
+    private String detail;
+
+}
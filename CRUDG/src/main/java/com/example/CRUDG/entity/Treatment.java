@@ -0,0 +1,62 @@
+package com.example.CRUDG.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
+import jakarta.persistence.Entity;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Cabecera de una receta. Las escribe treatments-api; aquí es solo lectura.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name="tbl_treatment", indexes = {
+    // Historial paginado por fecha de un paciente y de un doctor
+    @Index(name = "idx_treatment_patient_created", columnList = "patient_id, created_at"),
+    @Index(name = "idx_treatment_doctor_created", columnList = "doctor_id, created_at")
+})
+
+public class Treatment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "appointment_id", nullable = false)
+    private Long appointmentId;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Long doctorId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String diagnosis;
+
+    @Column(name = "created_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    // La FK ya la define tables.sql de treatments-api
+    @OneToMany
+    @JoinColumn(name = "treatment_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @OrderBy("id")
+    private List<TreatmentMedicine> medicines;
+
+}
@@ -0,0 +1,35 @@
+package com.example.CRUDG.entity;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Data
+@Entity
+@Immutable
+@Table(name="tbl_treatment_medicine")
+
+public class TreatmentMedicine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "treatment_id", nullable = false)
+    private Long treatmentId;
+
+    @Column(name = "medicine_name", nullable = false)
+    private String medicineName;
+
+    @Column(nullable = false, length = 100)
+    private String frequency;
+
+    @Column(nullable = false, length = 100)
+    private String duration;
+
+}
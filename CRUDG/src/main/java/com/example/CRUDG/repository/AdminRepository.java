@@ -1,13 +1,32 @@
 package com.example.CRUDG.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.example.CRUDG.entity.Admin;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 
 public interface  AdminRepository extends JpaRepository<Admin, Long> {
     Optional<Admin> findByEmail(String email);
+
+    // Paginación por cursor (keyset): siempre un range scan sobre la PK
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit, Class<T> type);
+
+    // Solo id/version/updatedAt: valida If-None-Match sin cargar la entidad
+    Optional<VersionStamp> findStampById(Long id);
+
+    // Firma de la página ?after=&size= para el ETag del listado (sin leer las filas completas)
+    @Query(value = """
+            SELECT COUNT(*) AS total, COALESCE(MAX(t.id), 0) AS maxId,
+                   COALESCE(SUM(t.version), 0) AS versionSum,
+                   COALESCE(UNIX_TIMESTAMP(MAX(t.updated_at)), 0) AS lastModified
+            FROM (SELECT id, version, updated_at FROM tbl_admin WHERE id > :after ORDER BY id LIMIT :size) t
+            """, nativeQuery = true)
+    PageStamp findPageStamp(@Param("after") long after, @Param("size") int size);
     
 }
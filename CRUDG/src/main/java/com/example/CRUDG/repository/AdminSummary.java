@@ -0,0 +1,14 @@
+package com.example.CRUDG.repository;
+
+import java.util.Set;
+
+/**
+ * Proyección ligera de admin para listados (solo id y nombre).
+ */
+public interface AdminSummary {
+    Set<String> FIELDS = Set.of("id", "name");
+
+    Long getId();
+
+    String getName();
+}
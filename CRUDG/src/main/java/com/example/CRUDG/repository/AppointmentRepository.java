@@ -0,0 +1,24 @@
+package com.example.CRUDG.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.CRUDG.entity.Appointment;
+
+@Repository
+
+public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+
+    // Carga inicial del índice de huecos: citas vigentes a partir de una fecha
+    List<Appointment> findByStatusNotAndAppointmentDatetimeGreaterThanEqual(String status, LocalDateTime from);
+
+    Optional<Appointment> findByDoctorIdAndAppointmentDatetime(Long doctorId, LocalDateTime appointmentDatetime);
+
+    List<Appointment> findByDoctorIdAndAppointmentDatetimeBetweenOrderByAppointmentDatetimeAsc(
+            Long doctorId, LocalDateTime from, LocalDateTime to);
+
+}
@@ -0,0 +1,52 @@
+package com.example.CRUDG.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.CRUDG.entity.Patient;
+
+/**
+ * Índice unificado de credenciales sobre tbl_patient, tbl_doctor y tbl_admin.
+ * Cada rama usa el índice único de email_address, así que un login es un solo
+ * round trip a la base de datos.
+ */
+public interface CredentialRepository extends Repository<Patient, Long> {
+
+    // Todas las cuentas con ese email, en el orden de prioridad del login: paciente, doctor
+    // y después admin. El login prueba la contraseña contra cada una hasta que coincida
+    @Transactional(readOnly = true)
+    @Query(value = """
+            SELECT c.id AS id, c.role AS role, c.password AS password
+            FROM (
+                SELECT id, 'PATIENT' AS role, password, 1 AS priority FROM tbl_patient WHERE email_address = :email
+                UNION ALL
+                SELECT id, 'DOCTOR' AS role, password, 2 AS priority FROM tbl_doctor WHERE email_address = :email
+                UNION ALL
+                SELECT id, 'ADMIN' AS role, password, 3 AS priority FROM tbl_admin WHERE email_address = :email
+            ) c
+            ORDER BY c.priority
+            """, nativeQuery = true)
+    List<CredentialView> findAllByEmail(@Param("email") String email);
+
+    // Re-hash tras el login: solo si el hash no cambió entretanto (p. ej. cambio de contraseña)
+    @Transactional
+    @Modifying
+    @Query("UPDATE Patient p SET p.password = :newHash WHERE p.id = :id AND p.password = :oldHash")
+    int replacePatientPassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Doctor d SET d.password = :newHash WHERE d.id = :id AND d.password = :oldHash")
+    int replaceDoctorPassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Admin a SET a.password = :newHash WHERE a.id = :id AND a.password = :oldHash")
+    int replaceAdminPassword(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+}
@@ -0,0 +1,13 @@
+package com.example.CRUDG.repository;
+
+/**
+ * Proyección mínima de credenciales: solo lo necesario para validar un login
+ * (id del usuario, rol y hash de la contraseña).
+ */
+public interface CredentialView {
+    Long getId();
+
+    String getRole();
+
+    String getPassword();
+}
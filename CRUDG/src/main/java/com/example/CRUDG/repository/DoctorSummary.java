@@ -0,0 +1,16 @@
+package com.example.CRUDG.repository;
+
+import java.util.Set;
+
+/**
+ * Proyección ligera de doctor para listados (id, nombre y especialidad).
+ */
+public interface DoctorSummary {
+    Set<String> FIELDS = Set.of("id", "name", "specialty");
+
+    Long getId();
+
+    String getName();
+
+    String getSpecialty();
+}
@@ -0,0 +1,14 @@
+package com.example.CRUDG.repository;
+
+/**
+ * Firma de una página de un listado: cambia si se crea, modifica o borra alguna de sus filas.
+ */
+public interface PageStamp {
+    Number getTotal();
+
+    Number getMaxId();
+
+    Number getVersionSum();
+
+    Number getLastModified();
+}
@@ -0,0 +1,14 @@
+package com.example.CRUDG.repository;
+
+/**
+ * Campos que indexa la búsqueda de pacientes.
+ */
+public interface PatientContact {
+    Long getId();
+
+    String getName();
+
+    String getEmailAddress();
+
+    String getPhone();
+}
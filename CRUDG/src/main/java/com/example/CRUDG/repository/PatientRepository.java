@@ -1,8 +1,18 @@
 package com.example.CRUDG.repository;
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import com.example.CRUDG.entity.Patient;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
 
 
 @Repository
@@ -10,5 +20,34 @@ import java.util.Optional;
 public interface  PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByEmailAddress(String email);
 
+    boolean existsByEmailAddress(String email);
+
+    // Paginación por cursor (keyset): siempre un range scan sobre la PK
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit, Class<T> type);
+
+    // Lote de ids en un solo query (proyección compacta)
+    List<PatientSummary> findByIdIn(Collection<Long> ids);
+
+    // Solo id/version/updatedAt: valida If-None-Match sin cargar la entidad
+    Optional<VersionStamp> findStampById(Long id);
+
+    // Firma de la página ?after=&size= para el ETag del listado (sin leer las filas completas)
+    @Query(value = """
+            SELECT COUNT(*) AS total, COALESCE(MAX(t.id), 0) AS maxId,
+                   COALESCE(SUM(t.version), 0) AS versionSum,
+                   COALESCE(UNIX_TIMESTAMP(MAX(t.updated_at)), 0) AS lastModified
+            FROM (SELECT id, version, updated_at FROM tbl_patient WHERE id > :after ORDER BY id LIMIT :size) t
+            """, nativeQuery = true)
+    PageStamp findPageStamp(@Param("after") long after, @Param("size") int size);
+
+    // Export completo en streaming: con MySQL, fetch size Integer.MIN_VALUE hace que el
+    // driver entregue las filas una a una en lugar de cargar todo el ResultSet en memoria
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p")
+    Stream<Patient> streamAll();
+
     
 }
@@ -0,0 +1,14 @@
+package com.example.CRUDG.repository;
+
+import java.util.Set;
+
+/**
+ * Proyección ligera de paciente para listados (solo id y nombre).
+ */
+public interface PatientSummary {
+    Set<String> FIELDS = Set.of("id", "name");
+
+    Long getId();
+
+    String getName();
+}
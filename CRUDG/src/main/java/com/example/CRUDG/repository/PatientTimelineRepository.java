@@ -0,0 +1,30 @@
+package com.example.CRUDG.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.CRUDG.entity.PatientTimelineEntry;
+
+@Repository
+
+public interface PatientTimelineRepository extends JpaRepository<PatientTimelineEntry, Long> {
+
+    // Más reciente primero. El cursor es la pareja (event_at, id) de la última fila de la página
+    // anterior (beforeAt null = inicio). El event_at <= redundante deja un range scan sobre
+    // idx_timeline_patient_event; la comparación de tuplas desempata por id
+    @Query(value = """
+            SELECT e.* FROM tbl_patient_timeline e
+            WHERE e.patient_id = :patientId
+              AND (:beforeAt IS NULL OR (e.event_at <= :beforeAt AND (e.event_at, e.id) < (:beforeAt, :beforeId)))
+            ORDER BY e.event_at DESC, e.id DESC
+            LIMIT :size
+            """, nativeQuery = true)
+    List<PatientTimelineEntry> findPage(@Param("patientId") Long patientId, @Param("beforeAt") LocalDateTime beforeAt,
+                                        @Param("beforeId") long beforeId, @Param("size") int size);
+
+}
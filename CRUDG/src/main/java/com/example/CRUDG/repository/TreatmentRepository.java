@@ -0,0 +1,70 @@
+package com.example.CRUDG.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.CRUDG.entity.Treatment;
+
+@Repository
+
+public interface TreatmentRepository extends JpaRepository<Treatment, Long> {
+
+    // Receta de una cita con sus medicamentos en un solo SELECT (JOIN)
+    @EntityGraph(attributePaths = "medicines")
+    Optional<Treatment> findByAppointmentId(Long appointmentId);
+
+    // Historial de un paciente, más reciente primero: una página de recetas con sus medicamentos
+    // en un solo round trip. El cursor es la pareja (created_at, id) de la última receta de la
+    // página anterior (beforeAt null = inicio); el created_at <= redundante acota el range scan
+    // sobre idx_treatment_*_created y la comparación de tuplas desempata por id.
+    @Query(value = """
+            SELECT t.id AS treatmentId, t.appointment_id AS appointmentId,
+                   t.patient_id AS patientId, p.name AS patientName,
+                   t.doctor_id AS doctorId, d.name AS doctorName, d.specialty AS specialty,
+                   t.diagnosis AS diagnosis, t.created_at AS createdAt,
+                   m.id AS medicineId, m.medicine_name AS medicineName, m.frequency AS frequency, m.duration AS duration
+            FROM (
+                SELECT h.* FROM tbl_treatment h
+                WHERE h.patient_id = :ownerId
+                  AND (:beforeAt IS NULL OR (h.created_at <= :beforeAt AND (h.created_at, h.id) < (:beforeAt, :beforeId)))
+                ORDER BY h.created_at DESC, h.id DESC
+                LIMIT :size
+            ) t
+            JOIN tbl_patient p ON p.id = t.patient_id
+            JOIN tbl_doctor d ON d.id = t.doctor_id
+            LEFT JOIN tbl_treatment_medicine m ON m.treatment_id = t.id
+            ORDER BY t.created_at DESC, t.id DESC, m.id
+            """, nativeQuery = true)
+    List<TreatmentRow> findPatientHistory(@Param("ownerId") Long patientId, @Param("beforeAt") LocalDateTime beforeAt,
+                                        @Param("beforeId") long beforeId, @Param("size") int size);
+
+    // Lo mismo para las recetas emitidas por un doctor
+    @Query(value = """
+            SELECT t.id AS treatmentId, t.appointment_id AS appointmentId,
+                   t.patient_id AS patientId, p.name AS patientName,
+                   t.doctor_id AS doctorId, d.name AS doctorName, d.specialty AS specialty,
+                   t.diagnosis AS diagnosis, t.created_at AS createdAt,
+                   m.id AS medicineId, m.medicine_name AS medicineName, m.frequency AS frequency, m.duration AS duration
+            FROM (
+                SELECT h.* FROM tbl_treatment h
+                WHERE h.doctor_id = :ownerId
+                  AND (:beforeAt IS NULL OR (h.created_at <= :beforeAt AND (h.created_at, h.id) < (:beforeAt, :beforeId)))
+                ORDER BY h.created_at DESC, h.id DESC
+                LIMIT :size
+            ) t
+            JOIN tbl_patient p ON p.id = t.patient_id
+            JOIN tbl_doctor d ON d.id = t.doctor_id
+            LEFT JOIN tbl_treatment_medicine m ON m.treatment_id = t.id
+            ORDER BY t.created_at DESC, t.id DESC, m.id
+            """, nativeQuery = true)
+    List<TreatmentRow> findDoctorHistory(@Param("ownerId") Long doctorId, @Param("beforeAt") LocalDateTime beforeAt,
+                                       @Param("beforeId") long beforeId, @Param("size") int size);
+
+}
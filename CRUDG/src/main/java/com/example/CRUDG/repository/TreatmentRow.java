@@ -0,0 +1,35 @@
+package com.example.CRUDG.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una fila del historial de recetas: cabecera + un medicamento (null si no tiene).
+ * TreatmentService agrupa las filas por receta.
+ */
+public interface TreatmentRow {
+    Long getTreatmentId();
+
+    Long getAppointmentId();
+
+    Long getPatientId();
+
+    String getPatientName();
+
+    Long getDoctorId();
+
+    String getDoctorName();
+
+    String getSpecialty();
+
+    String getDiagnosis();
+
+    LocalDateTime getCreatedAt();
+
+    Long getMedicineId();
+
+    String getMedicineName();
+
+    String getFrequency();
+
+    String getDuration();
+}
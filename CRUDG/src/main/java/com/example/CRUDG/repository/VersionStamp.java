@@ -0,0 +1,14 @@
+package com.example.CRUDG.repository;
+
+import java.time.Instant;
+
+/**
+ * Solo lo necesario para validar un ETag / Last-Modified sin cargar la entidad.
+ */
+public interface VersionStamp {
+    Long getId();
+
+    Long getVersion();
+
+    Instant getUpdatedAt();
+}
@@ -0,0 +1,97 @@
+package com.example.CRUDG.security;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Elige al arrancar el coste de BCrypt para este nodo: el mayor coste (entre min-cost y
+ * max-cost) cuyo hash tarda como mucho budget-ms en este hardware. Cada punto de coste
+ * duplica el trabajo, así que basta con medir el coste mínimo y extrapolar.
+ *
+ * Con crudg.password.bcrypt.cost se fija el coste y no se calibra. Si varios nodos
+ * comparten la base de datos conviene fijarlo (o usar el mismo hardware): con costes
+ * distintos cada nodo re-hashea al coste suyo las contraseñas de quien inicia sesión en él.
+ */
+@Component
+
+public class BcryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibracion-bcrypt";
+    private static final int SAMPLES = 3;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${crudg.password.bcrypt.cost:0}")
+    private int fixedCost;
+
+    @Value("${crudg.password.bcrypt.budget-ms:250}")
+    private long budgetMs;
+
+    @Value("${crudg.password.bcrypt.min-cost:10}")
+    private int minCost;
+
+    @Value("${crudg.password.bcrypt.max-cost:14}")
+    private int maxCost;
+
+    private int cost;
+    private long measuredNanos;
+
+    @PostConstruct
+    void calibrate() {
+        if (fixedCost > 0) {
+            cost = fixedCost;
+        } else {
+            measuredNanos = fastestHash(minCost);
+            long budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMs);
+            cost = minCost;
+            long estimate = measuredNanos;
+            while (cost < maxCost && estimate * 2 <= budgetNanos) {
+                estimate *= 2;
+                cost++;
+            }
+        }
+        Gauge.builder("crudg.password.bcrypt.cost", this, BcryptCostCalibrator::getCost)
+                .description("Coste de BCrypt usado para los hashes nuevos")
+                .register(meterRegistry);
+    }
+
+    // El mínimo de varias muestras descarta el ruido del arranque (JIT, GC)
+    private static long fastestHash(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /** Coste de un hash BCrypt ($2a$NN$...), con o sin prefijo {bcrypt}; -1 si no lo es. */
+    public static int costOf(String hash) {
+        if (hash == null) return -1;
+        String bcrypt = hash.startsWith(PasswordEncoders.BCRYPT_PREFIX)
+                ? hash.substring(PasswordEncoders.BCRYPT_PREFIX.length())
+                : hash;
+        if (bcrypt.length() < 7 || !bcrypt.startsWith("$2") || bcrypt.charAt(6) != '$') return -1;
+        try {
+            return Integer.parseInt(bcrypt.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+}
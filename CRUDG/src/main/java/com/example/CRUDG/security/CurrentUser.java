@@ -0,0 +1,49 @@
+package com.example.CRUDG.security;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Usuario del token de la petición en curso (JwtFilter deja los claims en los details
+ * de la autenticación). Para comprobaciones de propietario que RouteTable no puede hacer
+ * porque dependen del id de la ruta.
+ */
+public final class CurrentUser {
+
+    public static final String PATIENT = "PATIENT";
+    public static final String DOCTOR = "DOCTOR";
+    public static final String ADMIN = "ADMIN";
+
+    private CurrentUser() {
+    }
+
+    public static Claims claims() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof Claims claims) {
+            return claims;
+        }
+        return null;
+    }
+
+    public static String role() {
+        Claims claims = claims();
+        return claims == null ? null : (String) claims.get("role");
+    }
+
+    public static Long id() {
+        Claims claims = claims();
+        return claims != null && claims.get("id") instanceof Number id ? id.longValue() : null;
+    }
+
+    /** Doctores y administradores ven a cualquier paciente; un paciente, solo a sí mismo. */
+    public static void requirePatientOrStaff(Long patientId) {
+        String role = role();
+        if (DOCTOR.equals(role) || ADMIN.equals(role)) return;
+        if (PATIENT.equals(role) && patientId != null && patientId.equals(id())) return;
+        throw new AccessDeniedException("Sin acceso a los datos de este paciente");
+    }
+
+}
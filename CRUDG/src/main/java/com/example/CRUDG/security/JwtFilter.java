@@ -1,15 +1,24 @@
 package com.example.CRUDG.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.List;
 
 
 
@@ -17,40 +26,80 @@ import java.io.IOException;
 
 public class JwtFilter extends OncePerRequestFilter {
 
+    static final String ROLE_PREFIX = "ROLE_";
+
      @Autowired
     private JwtUtil jwtUtil;
 
-    @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
-            throws ServletException, IOException {
-                String path = request.getServletPath();
+    @Autowired
+    private RouteTable routeTable;
 
-    // 🚫 Ignorar rutas públicas
-    if (path.startsWith("/api/v1/auth/")
-        || path.startsWith("/api/v1/patient/")
-        || path.startsWith("/api/v1/patients/")
-        || path.startsWith("/api/v1/doctor/")
-        || path.startsWith("/api/v1/admin/")) {
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-        filterChain.doFilter(request, response);
-        return;
+    // crudg.jwt.filter{outcome=public|anonymous|valid|invalid|expired}
+    private Counter publicRequests;
+    private Counter anonymousRequests;
+    private Counter validTokens;
+    private Counter invalidTokens;
+    private Counter expiredTokens;
+
+    @PostConstruct
+    void initMetrics() {
+        publicRequests = meterRegistry.counter("crudg.jwt.filter", "outcome", "public");
+        anonymousRequests = meterRegistry.counter("crudg.jwt.filter", "outcome", "anonymous");
+        validTokens = meterRegistry.counter("crudg.jwt.filter", "outcome", "valid");
+        invalidTokens = meterRegistry.counter("crudg.jwt.filter", "outcome", "invalid");
+        expiredTokens = meterRegistry.counter("crudg.jwt.filter", "outcome", "expired");
     }
 
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // 🚫 Rutas públicas (según RouteTable): no exigen token, pero si viene uno válido se
+        // usa igualmente para que la auditoría sepa quién hizo el alta; uno inválido se ignora
+        boolean isPublic = routeTable.isPublic(request.getServletPath());
+        if (isPublic) {
+            publicRequests.increment();
+        }
+
         String authHeader = request.getHeader("Authorization");
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            if (jwtUtil.isTokenValid(token)) {
-                Claims claims = jwtUtil.extractAllClaims(token);
-                request.setAttribute("claims", claims);
-            } else {
+            // Una sola verificación (o un acierto en la caché) por petición
+            JwtUtil.Verification verification = jwtUtil.verify(token);
+            if (verification.isValid()) {
+                if (!isPublic) {
+                    validTokens.increment();
+                }
+                request.setAttribute("claims", verification.claims());
+                // El rol del token es lo que evalúan las reglas por rol de RouteTable
+                SecurityContextHolder.getContext().setAuthentication(authenticationOf(verification.claims()));
+            } else if (!isPublic) {
+                // verify ya dice por qué falló: no se vuelve a parsear el token
+                (verification.failure() == JwtUtil.Failure.EXPIRED ? expiredTokens : invalidTokens).increment();
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
+        } else if (!isPublic) {
+            anonymousRequests.increment();
         }
 
         filterChain.doFilter(request, response);
     }
-    
+
+    private static Authentication authenticationOf(Claims claims) {
+        Object role = claims.get("role");
+        List<GrantedAuthority> authorities = role == null
+                ? List.of()
+                : List.of(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(claims.getSubject(), null, authorities);
+        // Los claims (id, role) quedan a mano para las comprobaciones de CurrentUser
+        authentication.setDetails(claims);
+        return authentication;
+    }
+
 }
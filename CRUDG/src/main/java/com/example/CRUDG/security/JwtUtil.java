@@ -1,15 +1,29 @@
 package com.example.CRUDG.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import jakarta.annotation.PostConstruct;
 
 
 
@@ -22,8 +36,55 @@ public class JwtUtil {
      private static final String SECRET_KEY = "MiSuperClaveDeSeguridadParaVitalApp1234567890"; // cámbiala
     private static final long EXPIRATION_TIME = 1000 * 60 * 60 * 10; // 10 horas
 
+    // La clave y el parser son inmutables y thread-safe: se construyen una sola vez
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    @Value("${crudg.jwt.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    // Claims ya verificados, indexados por el SHA-256 del token (no guardamos el token en claro).
+    // Caffeine acota el tamaño (desalojo W-TinyLFU en O(1)) y cada entrada caduca con su "exp"
+    private Cache<String, VerifiedClaims> verifiedCache;
+
+    private record VerifiedClaims(Claims claims, long expiresAtMillis) {
+    }
+
+    public enum Failure { EXPIRED, INVALID }
+
+    /** Claims del token si es válido; si no, el motivo (para métricas, sin volver a parsear). */
+    public record Verification(Claims claims, Failure failure) {
+        public boolean isValid() {
+            return claims != null;
+        }
+    }
+
+    @PostConstruct
+    void initCache() {
+        verifiedCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, VerifiedClaims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedClaims entry, long currentTime) {
+                        long remaining = entry.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedClaims entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(digest, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedClaims entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+        return signingKey;
     }
 
     public String generateToken(Long id, String email, String role) {
@@ -38,23 +99,52 @@ public class JwtUtil {
     }
 
     public Claims extractAllClaims(String token) throws ExpiredJwtException {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verifica el token una sola vez y reutiliza los claims hasta su "exp".
+     * Si es inválido o ya expiró, devuelve el motivo.
+     */
+    public Verification verify(String token) {
+        if (token == null || token.isBlank()) return new Verification(null, Failure.INVALID);
+        String digest = digest(token);
+
+        // Una entrada cuyo "exp" ya pasó no se devuelve: el token se vuelve a parsear y falla
+        VerifiedClaims cached = verifiedCache.getIfPresent(digest);
+        if (cached != null) return new Verification(cached.claims(), null);
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (ExpiredJwtException e) {
+            return new Verification(null, Failure.EXPIRED);
+        } catch (Exception e) {
+            return new Verification(null, Failure.INVALID);
+        }
+        Date expiration = claims.getExpiration();
+        long expiresAt = expiration != null ? expiration.getTime() : System.currentTimeMillis() + EXPIRATION_TIME;
+        verifiedCache.put(digest, new VerifiedClaims(claims, expiresAt));
+        return new Verification(claims, null);
+    }
+
+    /** Devuelve vacío si el token es inválido o ya expiró. */
+    public Optional<Claims> verifyToken(String token) {
+        return Optional.ofNullable(verify(token).claims());
+    }
+
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return claimsOf(token).getSubject();
     }
 
     public String extractRole(String token) {
-        return (String) extractAllClaims(token).get("role");
+        return (String) claimsOf(token).get("role");
     }
 
     public Long extractId(String token) {
-        Object id = extractAllClaims(token).get("id");
+        Object id = claimsOf(token).get("id");
         if (id instanceof Integer) {
             return ((Integer) id).longValue();
         } else if (id instanceof Long) {
@@ -65,11 +155,21 @@ public class JwtUtil {
     }
 
     public boolean isTokenValid(String token) {
+        return verifyToken(token).isPresent();
+    }
+
+    // Si el token no es válido se vuelve a parsear para propagar la misma excepción que antes
+    private Claims claimsOf(String token) {
+        return verifyToken(token).orElseGet(() -> extractAllClaims(token));
+    }
+
+    private static String digest(String token) {
         try {
-            extractAllClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
         }
     }
 
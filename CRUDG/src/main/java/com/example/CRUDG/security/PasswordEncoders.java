@@ -0,0 +1,34 @@
+package com.example.CRUDG.security;
+
+import java.util.Map;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Formato de las contraseñas guardadas: "{bcrypt}$2a$NN$...". Los hashes antiguos sin
+ * prefijo se siguen verificando como BCrypt y se re-hashean al iniciar sesión.
+ */
+public final class PasswordEncoders {
+
+    public static final String BCRYPT_ID = "bcrypt";
+    public static final String BCRYPT_PREFIX = "{" + BCRYPT_ID + "}";
+
+    private PasswordEncoders() {
+    }
+
+    public static PasswordEncoder delegating(int bcryptCost) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptCost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    /** true si ya es un hash (con prefijo o BCrypt antiguo), para no hashearlo dos veces. */
+    public static boolean isEncoded(String password) {
+        return password.startsWith(BCRYPT_PREFIX)
+                || password.startsWith("$2a$") || password.startsWith("$2b$") || password.startsWith("$2y$");
+    }
+
+}
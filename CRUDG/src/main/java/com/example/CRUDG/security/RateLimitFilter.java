@@ -0,0 +1,76 @@
+package com.example.CRUDG.security;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Rate limit por IP, antes de JwtFilter: una petición rechazada no llega a verificar el
+ * token, consultar la base de datos ni calcular un BCrypt.
+ *
+ * - POST /api/v1/auth/**: grupo "login"
+ * - POST/PUT/PATCH/DELETE en /api/v1/**: grupo "write"
+ * El límite por email del login se aplica en AuthController, que es quien lee el cuerpo.
+ */
+@Component
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    // Solo detrás de un proxy de confianza: si no, cualquiera elige su "IP"
+    @Value("${crudg.ratelimit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String group = groupOf(request.getMethod(), request.getServletPath());
+        if (group != null) {
+            long wait = rateLimiter.tryAcquire(group, clientIp(request));
+            if (wait > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(RateLimiter.retryAfterSeconds(wait)));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Demasiadas peticiones, intenta más tarde\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String groupOf(String method, String path) {
+        if (!path.startsWith("/api/v1/")) return null;
+        if (path.startsWith("/api/v1/auth/")) {
+            return "POST".equals(method) ? RateLimiter.LOGIN : null;
+        }
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> RateLimiter.WRITE;
+            default -> null;
+        };
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.example.CRUDG.security;
+
+/**
+ * Límite de peticiones superado; retryAfterSeconds va en la cabecera Retry-After del 429.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(long retryAfterSeconds) {
+        super("Demasiados intentos, intenta más tarde");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
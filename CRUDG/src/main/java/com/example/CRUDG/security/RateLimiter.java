@@ -0,0 +1,144 @@
+package com.example.CRUDG.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Token buckets por cliente (IP o email) y grupo de rutas.
+ *
+ * Cada bucket es un solo AtomicLong con la "hora teórica de llegada" (GCRA): equivale a un
+ * token bucket de capacidad burst que se rellena a per-minute tokens por minuto, y se
+ * actualiza con un CAS, sin locks. Un bucket cuya hora ya pasó está lleno, así que se
+ * puede olvidar: cuando el mapa supera max-keys se purgan esos buckets inactivos. Un
+ * bucket activo nunca se descarta (el cliente recuperaría la ráfaga completa): si tras
+ * purgar el mapa sigue lleno, las claves nuevas se rechazan hasta que alguno caduque.
+ */
+@Component
+
+public class RateLimiter {
+
+    public static final String LOGIN = "login";
+    public static final String LOGIN_EMAIL = "login-email";
+    public static final String WRITE = "write";
+
+    private record Limit(long intervalNanos, long toleranceNanos, Counter allowed, Counter rejected) {
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${crudg.ratelimit.login.per-minute:10}")
+    private long loginPerMinute;
+
+    @Value("${crudg.ratelimit.login.burst:5}")
+    private long loginBurst;
+
+    @Value("${crudg.ratelimit.login-email.per-minute:5}")
+    private long loginEmailPerMinute;
+
+    @Value("${crudg.ratelimit.login-email.burst:5}")
+    private long loginEmailBurst;
+
+    @Value("${crudg.ratelimit.write.per-minute:120}")
+    private long writePerMinute;
+
+    @Value("${crudg.ratelimit.write.burst:30}")
+    private long writeBurst;
+
+    @Value("${crudg.ratelimit.max-keys:100000}")
+    private int maxKeys;
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean purging = new AtomicBoolean();
+    // Con el mapa lleno de buckets activos cada clave nueva pediría recorrerlo entero
+    private final AtomicLong nextPurge = new AtomicLong(System.nanoTime());
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @PostConstruct
+    void init() {
+        limits.put(LOGIN, limit(LOGIN, loginPerMinute, loginBurst));
+        limits.put(LOGIN_EMAIL, limit(LOGIN_EMAIL, loginEmailPerMinute, loginEmailBurst));
+        limits.put(WRITE, limit(WRITE, writePerMinute, writeBurst));
+        Gauge.builder("crudg.ratelimit.keys", buckets, Map::size)
+                .description("Buckets de rate limit en memoria")
+                .register(meterRegistry);
+    }
+
+    private Limit limit(String group, long perMinute, long burst) {
+        long interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+        return new Limit(interval, interval * Math.max(1, burst),
+                meterRegistry.counter("crudg.ratelimit", "group", group, "outcome", "allowed"),
+                meterRegistry.counter("crudg.ratelimit", "group", group, "outcome", "rejected"));
+    }
+
+    /**
+     * Consume un token del bucket (group, key).
+     * @return 0 si se permite; si no, nanosegundos hasta que haya un token disponible
+     */
+    public long tryAcquire(String group, String key) {
+        Limit limit = limits.get(group);
+        AtomicLong bucket = bucket(group + ':' + key);
+        if (bucket == null) {
+            // Sin hueco para otra clave: se rechaza y se reintenta tras un intervalo
+            limit.rejected().increment();
+            return limit.intervalNanos();
+        }
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + limit.intervalNanos();
+            long wait = newTat - now - limit.toleranceNanos();
+            if (wait > 0) {
+                limit.rejected().increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                limit.allowed().increment();
+                return 0;
+            }
+        }
+    }
+
+    // null si el mapa está lleno de buckets activos
+    private AtomicLong bucket(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) return bucket;
+        if (buckets.size() >= maxKeys) {
+            purge();
+            if (buckets.size() >= maxKeys) return null;
+        }
+        // Bucket nuevo = lleno: su hora teórica de llegada es "ahora"
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+    }
+
+    // Un solo hilo purga a la vez, y como mucho una vez por segundo; los demás siguen sin esperar
+    private void purge() {
+        long now = System.nanoTime();
+        if (now - nextPurge.get() < 0 || !purging.compareAndSet(false, true)) return;
+        try {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+            nextPurge.set(now + PURGE_INTERVAL_NANOS);
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    /** Retry-After en segundos enteros, redondeando hacia arriba. */
+    public static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.example.CRUDG.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tabla única de rutas públicas y protegidas. JwtFilter la consulta para saltarse la
+ * verificación del token en rutas públicas y SecurityConfig la usa como AuthorizationManager,
+ * así que las dos decisiones salen de la misma definición.
+ *
+ * Las reglas se compilan al arrancar en un trie por segmentos de ruta: cada consulta
+ * recorre la ruta una vez (O(longitud de la ruta)); un segmento "*" (un id, por ejemplo)
+ * solo se prueba si el segmento literal no lleva a ninguna regla. Gana la regla más
+ * específica; una ruta sin regla requiere estar autenticado.
+ */
+@Component
+
+public class RouteTable implements AuthorizationManager<RequestAuthorizationContext> {
+
+    /** Quién puede entrar: cualquiera, cualquier usuario autenticado, o ciertos roles del token. */
+    public record Access(boolean isPublic, Set<String> roles) {
+
+        public static final Access PUBLIC = new Access(true, Set.of());
+        public static final Access AUTHENTICATED = new Access(false, Set.of());
+
+        public static Access roles(String... roles) {
+            return new Access(false, Set.of(roles));
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        Node wildcard;
+        Access exact;
+        Access subtree;
+    }
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Node root = new Node();
+
+    // 🔹 Definición de rutas. "/**" cubre la ruta y todo lo que cuelga de ella; sin "/**" es
+    // coincidencia exacta; "*" es cualquier segmento. Los roles son el claim "role" del token (PATIENT, DOCTOR, ADMIN).
+    public RouteTable() {
+        route("/api/v1/auth/**", Access.PUBLIC);
+        route("/api/v1/patients/register", Access.PUBLIC);
+        // scrape de Prometheus y health checks; el resto de actuator solo para administradores
+        route("/actuator/health", Access.PUBLIC);
+        route("/actuator/prometheus", Access.PUBLIC);
+        route("/actuator/**", Access.roles("ADMIN"));
+        // Abiertas mientras el frontend no envía el token en todas las llamadas
+        route("/api/v1/admin/**", Access.PUBLIC);
+        route("/api/v1/doctor/**", Access.PUBLIC);
+        route("/api/v1/patient/**", Access.PUBLIC);
+        // Volcado completo de pacientes y doctores (NDJSON): solo administradores
+        route("/api/v1/patient/export", Access.roles("ADMIN"));
+        route("/api/v1/doctor/export", Access.roles("ADMIN"));
+        // Importación masiva (JSON o CSV): solo administradores
+        route("/api/v1/patient/bulk", Access.roles("ADMIN"));
+        route("/api/v1/doctor/bulk", Access.roles("ADMIN"));
+        // Consulta por lotes (hasta 500 ids por petición): solo administradores
+        route("/api/v1/patient/batch", Access.roles("ADMIN"));
+        route("/api/v1/doctor/batch", Access.roles("ADMIN"));
+        // Historia clínica: con token; PatientController comprueba además que sea el propio paciente
+        route("/api/v1/patient/*/timeline", Access.AUTHENTICATED);
+        // Citas: con token; el controlador comprueba que sea el propio paciente o personal.
+        // La agenda de un doctor (motivos de todos sus pacientes) solo doctores y admins
+        route("/api/v1/appointment/**", Access.AUTHENTICATED);
+        route("/api/v1/appointment/doctor/**", Access.roles("DOCTOR", "ADMIN"));
+        // Recetas: cualquier usuario autenticado; el historial por doctor solo doctores y admins
+        route("/api/v1/treatment/**", Access.AUTHENTICATED);
+        route("/api/v1/treatment/doctor/**", Access.roles("DOCTOR", "ADMIN"));
+    }
+
+    private void route(String pattern, Access access) {
+        boolean subtree = pattern.endsWith("/**");
+        String path = subtree ? pattern.substring(0, pattern.length() - 3) : pattern;
+        Node node = root;
+        for (String segment : path.split("/")) {
+            if (segment.equals("*")) {
+                if (node.wildcard == null) node.wildcard = new Node();
+                node = node.wildcard;
+            } else if (!segment.isEmpty()) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        if (subtree) {
+            node.subtree = access;
+        } else {
+            node.exact = access;
+        }
+    }
+
+    public Access accessFor(String path) {
+        Access access = match(root, path, 0);
+        return access != null ? access : Access.AUTHENTICATED;
+    }
+
+    // Regla más específica para path[i..] bajo node, o null si no hay ninguna
+    private static Access match(Node node, String path, int i) {
+        int length = path.length();
+        while (i < length && path.charAt(i) == '/') i++;
+        if (i >= length) {
+            return node.exact != null ? node.exact : node.subtree;
+        }
+        int end = path.indexOf('/', i);
+        if (end < 0) end = length;
+        Node literal = node.children.get(path.substring(i, end));
+        if (literal != null) {
+            Access access = match(literal, path, end);
+            if (access != null) return access;
+        }
+        if (node.wildcard != null) {
+            Access access = match(node.wildcard, path, end);
+            if (access != null) return access;
+        }
+        return node.subtree;
+    }
+
+    public boolean isPublic(String path) {
+        return accessFor(path).isPublic();
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Access access = accessFor(context.getRequest().getServletPath());
+        if (access.isPublic()) return GRANTED;
+        Authentication current = authentication.get();
+        if (current == null || !current.isAuthenticated() || current instanceof AnonymousAuthenticationToken) {
+            return DENIED;
+        }
+        if (access.roles().isEmpty()) return GRANTED;
+        for (GrantedAuthority authority : current.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name.startsWith(JwtFilter.ROLE_PREFIX) && access.roles().contains(name.substring(JwtFilter.ROLE_PREFIX.length()))) {
+                return GRANTED;
+            }
+        }
+        return DENIED;
+    }
+
+    // Sigue siendo abstracto en Spring Security 6.5: solo delega en authorize
+    @Deprecated
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return (AuthorizationDecision) authorize(authentication, context);
+    }
+
+}
@@ -1,13 +1,20 @@
 package com.example.CRUDG.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import java.util.Optional;
 import com.example.CRUDG.entity.Admin;
 import com.example.CRUDG.repository.AdminRepository;
+import com.example.CRUDG.repository.PageStamp;
+import com.example.CRUDG.repository.VersionStamp;
 
 @Service
+@Timed("crudg.service")
 
 public class AdminService {
 
@@ -17,46 +24,98 @@ public class AdminService {
     @Autowired
     private PasswordService passwordService;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Transactional(readOnly = true)
     public List<Admin> getAllAdmins() {
         return adminRepository.findAll();
     }
 
+    // Página por cursor: filas con id > afterId, como entidad o como proyección
+    @Transactional(readOnly = true)
+    public <T> List<T> getAdminsPage(long afterId, int size, Class<T> type) {
+        return adminRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size), type);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Admin> getAdminById(Long id) {
         return adminRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getAdminStamp(Long id) {
+        return adminRepository.findStampById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public PageStamp getAdminsPageStamp(long afterId, int size) {
+        return adminRepository.findPageStamp(afterId, size);
+    }
+
+    // El hash (BCrypt) se calcula antes de abrir la transacción: así no se retiene una
+    // conexión del pool mientras tanto, haya o no réplica configurada
     public Admin saveOrUpdate(Admin admin) {
         // Hash the password before saving or updating
         admin.setPassword(passwordService.hashPassword(admin.getPassword()));
-        return adminRepository.save(admin);
+        return transactionTemplate.execute(status -> {
+            // Sin version en el cuerpo se toma la actual (último en escribir gana, como antes);
+            // un id que no existe se inserta como nuevo
+            if (admin.getId() != null && admin.getVersion() == null) {
+                adminRepository.findStampById(admin.getId()).ifPresentOrElse(
+                        stamp -> admin.setVersion(stamp.getVersion()),
+                        () -> admin.setId(null));
+            }
+            String action = admin.getId() == null ? AuditEvent.CREATE : AuditEvent.UPDATE;
+            Admin saved = adminRepository.save(admin);
+            auditLog.record(AuditEvent.ADMIN, saved.getId(), action);
+            AfterCommit.run(() -> emailFilter.add(saved.getEmail()));
+            return saved;
+        });
     }
 
     public Admin updateAdmin(Long id, Admin updatedAdmin) {
-        return adminRepository.findById(id).map(admin -> {
+        // Hash the password before opening the transaction, only when a new password was provided
+        String newPassword = updatedAdmin.getPassword();
+        boolean passwordChanged = newPassword != null && !newPassword.isBlank();
+        if (passwordChanged) {
+            updatedAdmin.setPassword(passwordService.hashPassword(newPassword));
+        }
+        return transactionTemplate.execute(status -> adminRepository.findById(id).map(admin -> {
             admin.setName(updatedAdmin.getName());
             admin.setEmail(updatedAdmin.getEmail());
-            // Hash the password before updating, only when a new password was provided
-            String newPassword = updatedAdmin.getPassword();
-            if (newPassword != null && !newPassword.isBlank()) {
-                admin.setPassword(passwordService.hashPassword(newPassword));
+            if (passwordChanged) {
+                admin.setPassword(updatedAdmin.getPassword());
             }
-            return adminRepository.save(admin);
+            Admin saved = adminRepository.save(admin);
+            auditLog.record(AuditEvent.ADMIN, saved.getId(), AuditEvent.UPDATE);
+            AfterCommit.run(() -> emailFilter.add(saved.getEmail()));
+            return saved;
         }).orElseGet(() -> {
             // If admin not found, save as new
-            updatedAdmin.setId(id);
-            // Hash the password before saving if provided
-            String newPassword = updatedAdmin.getPassword();
-            if (newPassword != null && !newPassword.isBlank()) {
-                updatedAdmin.setPassword(passwordService.hashPassword(newPassword));
-            }
-            return adminRepository.save(updatedAdmin);
-        });
+            // IDENTITY asigna un id nuevo, igual que hacía merge sobre un id inexistente
+            updatedAdmin.setId(null);
+            updatedAdmin.setVersion(null);
+            Admin saved = adminRepository.save(updatedAdmin);
+            auditLog.record(AuditEvent.ADMIN, saved.getId(), AuditEvent.CREATE);
+            AfterCommit.run(() -> emailFilter.add(saved.getEmail()));
+            return saved;
+        }));
     }
     
+    @Transactional
     public void delete(Long id) {
         adminRepository.deleteById(id);
+        auditLog.record(AuditEvent.ADMIN, id, AuditEvent.DELETE);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Admin> findByEmail(String email) {
     return adminRepository.findByEmail(email);
 }
@@ -0,0 +1,134 @@
+package com.example.CRUDG.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import io.micrometer.core.annotation.Timed;
+import com.example.CRUDG.entity.Appointment;
+import com.example.CRUDG.repository.AppointmentRepository;
+import com.example.CRUDG.security.CurrentUser;
+
+@Service
+@Timed("crudg.service")
+
+public class AppointmentService {
+
+    @Autowired
+    AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSlotIndex slotIndex;
+
+    // Cada día reservado es una entrada del mapa de huecos hasta que pasa: sin límite, fechas
+    // muy lejanas o inventadas lo harían crecer sin que evictPastDays lo vacíe nunca
+    @Value("${crudg.appointments.horizon-days:180}")
+    private long horizonDays;
+
+    public Optional<Appointment> getAppointmentById(Long id) {
+        return appointmentRepository.findById(id);
+    }
+
+    public List<Appointment> getDoctorAppointments(Long doctorId, LocalDate date) {
+        return appointmentRepository.findByDoctorIdAndAppointmentDatetimeBetweenOrderByAppointmentDatetimeAsc(
+                doctorId, date.atStartOfDay(), date.atTime(LocalTime.MAX));
+    }
+
+    // Disponibilidad servida desde memoria, sin consultar MySQL
+    public List<LocalTime> getAvailability(Long doctorId, LocalDate date) {
+        return slotIndex.freeSlots(doctorId, date);
+    }
+
+    public Appointment book(Appointment request) {
+        if (request.getPatientId() == null || request.getDoctorId() == null || request.getAppointmentDatetime() == null) {
+            throw new InvalidAppointmentException("patientId, doctorId y appointmentDatetime son obligatorios");
+        }
+        LocalDateTime when = request.getAppointmentDatetime();
+        if (slotIndex.slotOf(when) < 0) {
+            throw new InvalidAppointmentException("La hora no corresponde a un hueco de la agenda");
+        }
+        if (when.isBefore(LocalDateTime.now())) {
+            throw new InvalidAppointmentException("No se pueden reservar citas en el pasado");
+        }
+        if (when.toLocalDate().isAfter(LocalDate.now().plusDays(horizonDays))) {
+            throw new InvalidAppointmentException("Solo se reservan citas con hasta " + horizonDays + " días de antelación");
+        }
+        // Camino rápido: el hueco se reserva en memoria antes de ir a la base de datos,
+        // así los perdedores de una carrera reciben 409 sin transacción ni excepción SQL
+        if (!slotIndex.tryReserve(request.getDoctorId(), when) && !reclaimStaleSlot(request.getDoctorId(), when)) {
+            throw new SlotUnavailableException("El doctor ya tiene una cita a esa hora");
+        }
+
+        request.setId(null);
+        request.setVersion(null);
+        request.setStatus(Appointment.PENDING);
+        // El bit solo se conserva si la cita quedó guardada o el hueco está ocupado de verdad;
+        // cualquier otra salida (incluida una excepción de reuse) lo libera en el finally
+        boolean keepSlot = false;
+        try {
+            Appointment saved = appointmentRepository.save(request);
+            keepSlot = true;
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            Optional<Appointment> existing = appointmentRepository
+                    .findByDoctorIdAndAppointmentDatetime(request.getDoctorId(), when);
+            if (existing.isEmpty()) {
+                // No fue la clave única sino las foreign keys
+                throw new InvalidAppointmentException("El paciente o el doctor no existen");
+            }
+            // uk_doctor_time también cubre citas canceladas: si es el caso se reutiliza la fila
+            if (Appointment.CANCELLED.equals(existing.get().getStatus())) {
+                Appointment reused = reuse(existing.get(), request);
+                keepSlot = true;
+                return reused;
+            }
+            // La reservó otra vía (p. ej. la API de citas): el hueco queda marcado
+            keepSlot = true;
+            throw new SlotUnavailableException("El doctor ya tiene una cita a esa hora");
+        } finally {
+            if (!keepSlot) {
+                slotIndex.clear(request.getDoctorId(), when);
+            }
+        }
+    }
+
+    // El bit puede venir de una cita cancelada fuera de CRUDG (appointments-api hace el UPDATE
+    // directamente): antes de responder 409 se mira la fila. Solo una fila CANCELLED libera
+    // el bit; sin fila el hueco lo tiene otra reserva en curso que aún no ha hecho commit
+    private boolean reclaimStaleSlot(Long doctorId, LocalDateTime when) {
+        Optional<Appointment> existing = appointmentRepository.findByDoctorIdAndAppointmentDatetime(doctorId, when);
+        if (existing.isEmpty() || !Appointment.CANCELLED.equals(existing.get().getStatus())) {
+            return false;
+        }
+        slotIndex.clear(doctorId, when);
+        return slotIndex.tryReserve(doctorId, when);
+    }
+
+    private Appointment reuse(Appointment cancelled, Appointment request) {
+        cancelled.setPatientId(request.getPatientId());
+        cancelled.setReason(request.getReason());
+        cancelled.setStatus(Appointment.PENDING);
+        return appointmentRepository.save(cancelled);
+    }
+
+    // El UPDATE lleva "where version = ?": una modificación concurrente acaba en 409.
+    // Solo el paciente de la cita, o doctores y admins, pueden cancelarla
+    public Optional<Appointment> cancel(Long id) {
+        return appointmentRepository.findById(id).map(appointment -> {
+            CurrentUser.requirePatientOrStaff(appointment.getPatientId());
+            if (!Appointment.CANCELLED.equals(appointment.getStatus())) {
+                appointment.setStatus(Appointment.CANCELLED);
+                appointment = appointmentRepository.save(appointment);
+                slotIndex.clear(appointment.getDoctorId(), appointment.getAppointmentDatetime());
+            }
+            return appointment;
+        });
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.example.CRUDG.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.CRUDG.entity.Appointment;
+import com.example.CRUDG.repository.AppointmentRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Mapa de bits en memoria de los huecos ocupados de cada doctor y día.
+ * Cada día es un long: el bit i indica que el hueco i (day-start + i * slot-minutes) está ocupado.
+ * Se carga al arrancar y AppointmentService lo actualiza en cada reserva y cancelación
+ * (las reservas compiten con tryReserve, que es lock-free);
+ * la clave única uk_doctor_time sigue siendo la garantía final en la base de datos.
+ * Las cancelaciones hechas por otras APIs no llegan aquí: AppointmentService consulta la
+ * fila antes de rechazar una reserva. Cada noche se descartan los días ya pasados.
+ */
+@Component
+
+public class AppointmentSlotIndex {
+
+    private record DoctorDay(Long doctorId, LocalDate date) {
+    }
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${crudg.appointments.day-start:08:00}")
+    private String dayStartProperty = "08:00";
+
+    @Value("${crudg.appointments.day-end:20:00}")
+    private String dayEndProperty = "20:00";
+
+    @Value("${crudg.appointments.slot-minutes:30}")
+    private int slotMinutes = 30;
+
+    private LocalTime dayStart;
+    private LocalTime dayEnd;
+    private int slotsPerDay;
+
+    private final Map<DoctorDay, AtomicLong> occupied = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        dayStart = LocalTime.parse(dayStartProperty);
+        dayEnd = LocalTime.parse(dayEndProperty);
+        long minutes = Duration.between(dayStart, dayEnd).toMinutes();
+        if (slotMinutes <= 0 || minutes <= 0 || minutes % slotMinutes != 0) {
+            throw new IllegalStateException("La jornada debe ser un múltiplo exacto de crudg.appointments.slot-minutes");
+        }
+        slotsPerDay = (int) (minutes / slotMinutes);
+        if (slotsPerDay > Long.SIZE) {
+            throw new IllegalStateException("Como máximo " + Long.SIZE + " huecos por día");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        for (Appointment appointment : appointmentRepository
+                .findByStatusNotAndAppointmentDatetimeGreaterThanEqual(Appointment.CANCELLED, from)) {
+            mark(appointment.getDoctorId(), appointment.getAppointmentDatetime());
+        }
+    }
+
+    @Scheduled(cron = "${crudg.appointments.evict-cron:0 5 0 * * *}")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        occupied.keySet().removeIf(day -> day.date().isBefore(today));
+    }
+
+    public int size() {
+        return occupied.size();
+    }
+
+    /**
+     * Hueco del día que corresponde a la fecha/hora, o -1 si no cae en un hueco válido
+     * (fuera de la jornada o no alineado con slot-minutes).
+     */
+    public int slotOf(LocalDateTime dateTime) {
+        LocalTime time = dateTime.toLocalTime();
+        if (time.isBefore(dayStart) || !time.isBefore(dayEnd) || time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        long minutes = Duration.between(dayStart, time).toMinutes();
+        if (minutes % slotMinutes != 0) return -1;
+        return (int) (minutes / slotMinutes);
+    }
+
+    public boolean isTaken(Long doctorId, LocalDateTime dateTime) {
+        int slot = slotOf(dateTime);
+        if (slot < 0) return false;
+        AtomicLong bits = occupied.get(new DoctorDay(doctorId, dateTime.toLocalDate()));
+        return bits != null && (bits.get() & (1L << slot)) != 0;
+    }
+
+    /**
+     * Reserva el hueco con un compare-and-set sobre el long del día: sin locks, y solo un
+     * hilo puede ganar cada hueco. Devuelve false si ya estaba ocupado.
+     */
+    public boolean tryReserve(Long doctorId, LocalDateTime dateTime) {
+        int slot = slotOf(dateTime);
+        if (slot < 0) return false;
+        long mask = 1L << slot;
+        AtomicLong bits = bitsOf(doctorId, dateTime.toLocalDate());
+        while (true) {
+            long current = bits.get();
+            if ((current & mask) != 0) return false;
+            if (bits.compareAndSet(current, current | mask)) return true;
+        }
+    }
+
+    public void mark(Long doctorId, LocalDateTime dateTime) {
+        int slot = slotOf(dateTime);
+        if (slot < 0) return;
+        bitsOf(doctorId, dateTime.toLocalDate()).getAndUpdate(bits -> bits | (1L << slot));
+    }
+
+    public void clear(Long doctorId, LocalDateTime dateTime) {
+        int slot = slotOf(dateTime);
+        if (slot < 0) return;
+        AtomicLong bits = occupied.get(new DoctorDay(doctorId, dateTime.toLocalDate()));
+        if (bits != null) {
+            bits.getAndUpdate(b -> b & ~(1L << slot));
+        }
+    }
+
+    // Huecos libres del día, en orden
+    public List<LocalTime> freeSlots(Long doctorId, LocalDate date) {
+        AtomicLong bits = occupied.get(new DoctorDay(doctorId, date));
+        long taken = bits == null ? 0L : bits.get();
+        List<LocalTime> free = new ArrayList<>(slotsPerDay);
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            if ((taken & (1L << slot)) == 0) {
+                free.add(dayStart.plusMinutes((long) slot * slotMinutes));
+            }
+        }
+        return free;
+    }
+
+    private AtomicLong bitsOf(Long doctorId, LocalDate date) {
+        return occupied.computeIfAbsent(new DoctorDay(doctorId, date), k -> new AtomicLong());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.example.CRUDG.service;
+
+import java.time.Instant;
+
+/**
+ * Alta, modificación o baja de una entidad. actor es el usuario autenticado, si lo hay.
+ */
+public record AuditEvent(Instant occurredAt, String entityType, Long entityId, String action, String actor) {
+
+    public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    public static final String PATIENT = "patient";
+    public static final String DOCTOR = "doctor";
+    public static final String ADMIN = "admin";
+
+}
@@ -0,0 +1,187 @@
+package com.example.CRUDG.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Auditoría asíncrona de altas, cambios y bajas.
+ *
+ * En la petición solo se encola el evento en un AuditRingBuffer (sin locks ni E/S; si la
+ * cola está llena el evento se descarta y se cuenta). Un hilo escritor vacía la cola en
+ * lotes y los inserta en tbl_audit_log con un único commit por lote.
+ */
+@Service
+
+public class AuditLog {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO tbl_audit_log (occurred_at, entity_type, entity_id, action, actor) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${crudg.audit.capacity:8192}")
+    private int capacity;
+
+    @Value("${crudg.audit.batch-size:256}")
+    private int batchSize;
+
+    @Value("${crudg.audit.flush-ms:200}")
+    private long flushMs;
+
+    @Value("${crudg.audit.backpressure-ms:5000}")
+    private long backpressureMs;
+
+    private AuditRingBuffer<AuditEvent> buffer;
+    private Thread writer;
+    private volatile boolean running;
+
+    private Counter published;
+    private Counter dropped;
+    private Counter written;
+    private Counter failed;
+    private DistributionSummary batchSizes;
+
+    @PostConstruct
+    void start() {
+        buffer = new AuditRingBuffer<>(capacity);
+        published = Counter.builder("crudg.audit.events").tag("outcome", "published")
+                .description("Eventos de auditoría encolados").register(meterRegistry);
+        dropped = Counter.builder("crudg.audit.events").tag("outcome", "dropped")
+                .description("Eventos descartados por cola llena").register(meterRegistry);
+        written = Counter.builder("crudg.audit.rows").tag("outcome", "written")
+                .description("Filas escritas en tbl_audit_log").register(meterRegistry);
+        failed = Counter.builder("crudg.audit.rows").tag("outcome", "failed")
+                .description("Filas perdidas por error al escribir el lote").register(meterRegistry);
+        batchSizes = DistributionSummary.builder("crudg.audit.batch")
+                .description("Filas por commit del escritor").register(meterRegistry);
+        Gauge.builder("crudg.audit.backlog", buffer, AuditRingBuffer::size)
+                .description("Eventos esperando al escritor").register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Dentro de una transacción el evento se encola al confirmar; si se revierte, no hay evento.
+     */
+    public void record(String entityType, Long entityId, String action) {
+        AuditEvent event = new AuditEvent(Instant.now(), entityType, entityId, action, currentActor());
+        AfterCommit.run(() -> publish(event));
+    }
+
+    /**
+     * Eventos de un lote ya confirmado (importación masiva). En vez de descartar cuando la
+     * cola se llena, el productor espera a que el escritor la vacíe, como mucho
+     * backpressure-ms en total; pasado ese tiempo, lo que no quepa se descarta y se cuenta.
+     */
+    public void recordAll(String entityType, List<Long> entityIds, String action) {
+        Instant now = Instant.now();
+        String actor = currentActor();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backpressureMs);
+        for (Long entityId : entityIds) {
+            AuditEvent event = new AuditEvent(now, entityType, entityId, action, actor);
+            boolean queued = buffer.offer(event);
+            while (!queued && System.nanoTime() - deadline < 0) {
+                // El escritor puede estar esperando flush-ms: se le despierta
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                queued = buffer.offer(event);
+            }
+            if (queued) {
+                published.increment();
+            } else {
+                dropped.increment();
+            }
+        }
+    }
+
+    private void publish(AuditEvent event) {
+        if (buffer.offer(event)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) return null;
+        return authentication.getName();
+    }
+
+    // Un lote incompleto significa que la cola se vació: se espera flush-ms para agrupar más
+    private void runWriter() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMs);
+        while (running) {
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained > 0) {
+                write(batch);
+                batch.clear();
+            }
+            if (drained < batchSize) {
+                LockSupport.parkNanos(flushNanos);
+            }
+        }
+        // Al parar se escribe lo que quede en la cola
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                        ps.setTimestamp(1, Timestamp.from(event.occurredAt()));
+                        ps.setString(2, event.entityType());
+                        ps.setObject(3, event.entityId());
+                        ps.setString(4, event.action());
+                        ps.setString(5, event.actor());
+                    }));
+            written.increment(batch.size());
+            batchSizes.record(batch.size());
+        } catch (RuntimeException e) {
+            // Sin conexión o error SQL: el lote se pierde, pero el escritor sigue vivo
+            failed.increment(batch.size());
+        }
+    }
+
+}
@@ -0,0 +1,309 @@
+package com.example.CRUDG.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.CRUDG.entity.Doctor;
+import com.example.CRUDG.entity.Patient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.annotation.Timed;
+
+/**
+ * Alta masiva de pacientes y doctores.
+ * Las entidades usan GenerationType.IDENTITY, que desactiva el batching de Hibernate,
+ * así que el insert se hace con JDBC en lotes (rewriteBatchedStatements=true convierte
+ * cada lote en un único INSERT multi-fila). Si un lote falla se reintenta fila a fila
+ * para reportar qué filas concretas fallaron.
+ */
+@Service
+@Timed("crudg.service")
+
+public class BulkImportService {
+
+    static final String TEXT_CSV = "text/csv";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DoctorSpecialtyIndex doctorSpecialtyIndex;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Value("${crudg.import.batch-size:500}")
+    private int batchSize;
+
+    // Cómo leer, validar e insertar cada tipo de fila
+    private record RowSpec<T>(String auditType,
+                              String insertSql,
+                              Function<T, String> email,
+                              Function<T, String> password,
+                              BiConsumer<T, String> setPassword,
+                              JdbcBinder<T> binder) {
+    }
+
+    @FunctionalInterface
+    private interface JdbcBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    private record Pending<T>(int row, T value) {
+    }
+
+    private static final RowSpec<Patient> PATIENT_ROWS = new RowSpec<>(AuditEvent.PATIENT,
+            "INSERT INTO tbl_patient (name, email_address, phone, password, updated_at) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP(6))",
+            Patient::getEmailAddress, Patient::getPassword, Patient::setPassword,
+            (ps, p) -> {
+                ps.setString(1, p.getName());
+                ps.setString(2, p.getEmailAddress());
+                ps.setString(3, p.getPhone());
+                ps.setString(4, p.getPassword());
+            });
+
+    private static final RowSpec<Doctor> DOCTOR_ROWS = new RowSpec<>(AuditEvent.DOCTOR,
+            "INSERT INTO tbl_doctor (name, email_address, password, phone_number, specialty, updated_at) VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP(6))",
+            Doctor::getEmail, Doctor::getPassword, Doctor::setPassword,
+            (ps, d) -> {
+                ps.setString(1, d.getName());
+                ps.setString(2, d.getEmail());
+                ps.setString(3, d.getPassword());
+                ps.setString(4, d.getPhoneNumber());
+                ps.setString(5, d.getSpecialty());
+            });
+
+    public ImportReport importPatients(InputStream body, String contentType) throws IOException {
+        return importRows(rows(body, contentType, Patient.class), PATIENT_ROWS,
+                (patient, id) -> patientSearchIndex.put(id, patient.getName(), patient.getEmailAddress(), patient.getPhone()));
+    }
+
+    // Los doctores nuevos solo cambian los listados cacheados
+    @CacheEvict(cacheNames = "doctorPages", allEntries = true)
+    public ImportReport importDoctors(InputStream body, String contentType) throws IOException {
+        return importRows(rows(body, contentType, Doctor.class), DOCTOR_ROWS,
+                (doctor, id) -> doctorSpecialtyIndex.put(id, doctor.getName(), doctor.getSpecialty()));
+    }
+
+    // JSON: se recorre el arreglo elemento a elemento, sin cargarlo entero en memoria.
+    // CSV: la cabecera usa los mismos nombres que las propiedades JSON de la entidad.
+    // Una fila que no encaja en la entidad sale de next() como IllegalArgumentException.
+    private <T> Iterator<T> rows(InputStream body, String contentType, Class<T> type) throws IOException {
+        if (contentType != null && contentType.startsWith(TEXT_CSV)) {
+            CsvRows csv = new CsvRows(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return csv.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return objectMapper.convertValue(csv.next(), type);
+                }
+            };
+        }
+        // Cada elemento se lee como árbol y luego se convierte: un tipo o campo inválido solo
+        // invalida su fila, mientras que un error de sintaxis corta la lectura
+        MappingIterator<JsonNode> nodes = objectMapper.readerFor(JsonNode.class).readValues(body);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return nodes.hasNext();
+            }
+
+            @Override
+            public T next() {
+                JsonNode node = nodes.next();
+                try {
+                    return objectMapper.treeToValue(node, type);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException(e.getOriginalMessage(), e);
+                }
+            }
+        };
+    }
+
+    // onInserted recibe cada fila insertada con su id, para mantener los índices en memoria
+    private <T> ImportReport importRows(Iterator<T> rows, RowSpec<T> spec, BiConsumer<T, Long> onInserted) {
+        List<ImportReport.RowResult> results = new ArrayList<>();
+        List<Pending<T>> batch = new ArrayList<>(batchSize);
+        int rowNumber = 0;
+        while (true) {
+            T row;
+            try {
+                if (!rows.hasNext()) break;
+                row = rows.next();
+            } catch (IllegalArgumentException e) {
+                rowNumber++;
+                results.add(ImportReport.RowResult.error(rowNumber, null, "fila no válida: " + reason(e)));
+                continue;
+            } catch (RuntimeException e) {
+                // JSON mal formado (o el cuerpo se cortó): lo que sigue no se puede leer, pero
+                // las filas anteriores se importan igualmente
+                rowNumber++;
+                results.add(ImportReport.RowResult.error(rowNumber, null, "no se pudo leer el resto del cuerpo: " + reason(e)));
+                break;
+            }
+            rowNumber++;
+            String email = spec.email().apply(row);
+            String password = spec.password().apply(row);
+            if (email == null || email.isBlank()) {
+                results.add(ImportReport.RowResult.error(rowNumber, email, "email requerido"));
+                continue;
+            }
+            if (password == null || password.isBlank()) {
+                results.add(ImportReport.RowResult.error(rowNumber, email, "password requerido"));
+                continue;
+            }
+            batch.add(new Pending<>(rowNumber, row));
+            if (batch.size() >= batchSize) {
+                results.addAll(flush(batch, spec, onInserted));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            results.addAll(flush(batch, spec, onInserted));
+        }
+        return ImportReport.of(results);
+    }
+
+    private <T> List<ImportReport.RowResult> flush(List<Pending<T>> batch, RowSpec<T> spec, BiConsumer<T, Long> onInserted) {
+        List<ImportReport.RowResult> results = insert(batch, spec);
+        List<Long> inserted = new ArrayList<>(batch.size());
+        // insert() devuelve un resultado por fila del lote, en el mismo orden
+        for (int i = 0; i < batch.size(); i++) {
+            // El email entra en el filtro aunque el driver no devolviera el id generado
+            if (results.get(i).error() == null) {
+                emailFilter.add(results.get(i).email());
+            }
+            Long id = results.get(i).id();
+            if (id != null) {
+                onInserted.accept(batch.get(i).value(), id);
+                inserted.add(id);
+            }
+        }
+        // Un lote entero a la vez y con espera si la cola de auditoría está llena: una
+        // importación grande no puede desbordarla y perder eventos
+        auditLog.recordAll(spec.auditType(), inserted, AuditEvent.CREATE);
+        return results;
+    }
+
+    private <T> List<ImportReport.RowResult> insert(List<Pending<T>> batch, RowSpec<T> spec) {
+        // Hash en paralelo de todo el lote antes de tocar la base de datos
+        List<String> hashes = passwordService.hashPasswords(
+                batch.stream().map(p -> spec.password().apply(p.value())).toList());
+        for (int i = 0; i < batch.size(); i++) {
+            spec.setPassword().accept(batch.get(i).value(), hashes.get(i));
+        }
+
+        try {
+            return transactionTemplate.execute(status -> insertBatch(batch, spec));
+        } catch (DataAccessException e) {
+            // El lote se revirtió entero: fila a fila para saber cuáles fallan
+            List<ImportReport.RowResult> results = new ArrayList<>(batch.size());
+            for (Pending<T> pending : batch) {
+                results.add(insertOne(pending, spec));
+            }
+            return results;
+        }
+    }
+
+    private <T> List<ImportReport.RowResult> insertBatch(List<Pending<T>> batch, RowSpec<T> spec) {
+        return jdbcTemplate.execute((ConnectionCallback<List<ImportReport.RowResult>>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(spec.insertSql(), Statement.RETURN_GENERATED_KEYS)) {
+                for (Pending<T> pending : batch) {
+                    spec.binder().bind(ps, pending.value());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                List<Long> ids = generatedKeys(ps);
+                List<ImportReport.RowResult> results = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    Pending<T> pending = batch.get(i);
+                    Long id = ids.size() == batch.size() ? ids.get(i) : null;
+                    results.add(ImportReport.RowResult.ok(pending.row(), spec.email().apply(pending.value()), id));
+                }
+                return results;
+            }
+        });
+    }
+
+    private <T> ImportReport.RowResult insertOne(Pending<T> pending, RowSpec<T> spec) {
+        String email = spec.email().apply(pending.value());
+        try {
+            Long id = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                try (PreparedStatement ps = con.prepareStatement(spec.insertSql(), Statement.RETURN_GENERATED_KEYS)) {
+                    spec.binder().bind(ps, pending.value());
+                    ps.executeUpdate();
+                    List<Long> ids = generatedKeys(ps);
+                    return ids.isEmpty() ? null : ids.get(0);
+                }
+            });
+            return ImportReport.RowResult.ok(pending.row(), email, id);
+        } catch (DataAccessException e) {
+            return ImportReport.RowResult.error(pending.row(), email, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static String reason(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof JsonProcessingException json) {
+            return json.getOriginalMessage();
+        }
+        return cause.getMessage();
+    }
+
+    private static List<Long> generatedKeys(PreparedStatement ps) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.example.CRUDG.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Carga por lotes con coalescencia de peticiones: si varios hilos piden a la vez ids
+ * que se solapan, cada id se consulta una sola vez y el resto espera ese resultado.
+ * Cada llamada consulta en un único query los ids que nadie está cargando ya.
+ */
+public class CoalescingLoader<T> {
+
+    private final Map<Long, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final Function<Collection<Long>, Map<Long, T>> loader;
+
+    public CoalescingLoader(Function<Collection<Long>, Map<Long, T>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Devuelve los valores encontrados en el orden de los ids pedidos (sin duplicados);
+     * los ids inexistentes se omiten.
+     */
+    public Map<Long, T> load(Collection<Long> ids) {
+        Map<Long, CompletableFuture<T>> waiting = new LinkedHashMap<>();
+        Map<Long, CompletableFuture<T>> owned = new HashMap<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            if (id == null) continue;
+            CompletableFuture<T> mine = new CompletableFuture<>();
+            CompletableFuture<T> existing = inFlight.putIfAbsent(id, mine);
+            if (existing == null) {
+                owned.put(id, mine);
+                waiting.put(id, mine);
+            } else {
+                waiting.put(id, existing);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            try {
+                Map<Long, T> rows = loader.apply(owned.keySet());
+                owned.forEach((id, future) -> future.complete(rows.get(id)));
+            } catch (RuntimeException e) {
+                owned.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                owned.forEach(inFlight::remove);
+            }
+        }
+
+        Map<Long, T> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, CompletableFuture<T>> entry : waiting.entrySet()) {
+            T value;
+            try {
+                value = entry.getValue().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.example.CRUDG.service;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.example.CRUDG.repository.CredentialRepository;
+import com.example.CRUDG.repository.CredentialView;
+
+@Service
+@Timed("crudg.service")
+
+public class CredentialService {
+
+    @Autowired
+    CredentialRepository credentialRepository;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Cuenta cuyo email y contraseña coinciden. Si el email está en varias tablas se
+     * prueba en orden de prioridad (paciente, doctor, admin), como hacía el login por
+     * tablas; lo normal es una sola cuenta y una sola verificación BCrypt. Sin
+     * transacción: la consulta abre la suya y BCrypt no retiene la conexión.
+     */
+    public Optional<CredentialView> authenticate(String email, String plainPassword) {
+        if (email == null || email.isBlank()) return Optional.empty();
+        // Email que no está en ninguna tabla (la mayoría en credential stuffing): sin consulta
+        if (!emailFilter.mightContain(email)) return Optional.empty();
+        for (CredentialView candidate : credentialRepository.findAllByEmail(email)) {
+            if (passwordService.checkPassword(plainPassword, candidate.getPassword())) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Tras un login correcto: si el hash usa otro formato u otro coste, se rehace en
+     * segundo plano con la contraseña recién verificada.
+     */
+    public void rehashIfNeeded(CredentialView credential, String plainPassword) {
+        String oldHash = credential.getPassword();
+        if (!passwordService.needsRehash(oldHash)) return;
+        Long id = credential.getId();
+        passwordService.rehashAsync(plainPassword, newHash -> {
+            switch (credential.getRole()) {
+                case "PATIENT" -> credentialRepository.replacePatientPassword(id, oldHash, newHash);
+                case "DOCTOR" -> {
+                    // El UPDATE ya hizo commit (transacción propia del repositorio): las cachés
+                    // de doctores guardan la entidad con el hash viejo
+                    if (credentialRepository.replaceDoctorPassword(id, oldHash, newHash) > 0) {
+                        evictDoctor(id);
+                    }
+                }
+                case "ADMIN" -> credentialRepository.replaceAdminPassword(id, oldHash, newHash);
+                default -> { }
+            }
+        });
+    }
+
+    // Mismas cachés que invalida DoctorService al modificar un doctor
+    private void evictDoctor(Long id) {
+        Cache doctors = cacheManager.getCache("doctors");
+        if (doctors != null) doctors.evict(id);
+        for (String name : new String[] {"doctorPages", "doctorEmails"}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) cache.clear();
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.example.CRUDG.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lector CSV mínimo para importaciones: la primera línea es la cabecera y cada
+ * fila se entrega como mapa columna → valor. Soporta comillas dobles ("a,b" y "")
+ * pero no saltos de línea dentro de un campo.
+ */
+class CsvRows implements Iterator<Map<String, String>> {
+
+    private final BufferedReader reader;
+    private final List<String> header;
+    private String nextLine;
+
+    CsvRows(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        String headerLine = reader.readLine();
+        this.header = headerLine == null ? List.of() : parseLine(headerLine).stream().map(String::trim).toList();
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    @Override
+    public Map<String, String> next() {
+        if (nextLine == null) throw new NoSuchElementException();
+        List<String> values = parseLine(nextLine);
+        advance();
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            row.put(header.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    private void advance() {
+        try {
+            do {
+                nextLine = reader.readLine();
+            } while (nextLine != null && nextLine.isBlank());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+}
@@ -1,16 +1,33 @@
 package com.example.CRUDG.service;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.micrometer.core.annotation.Timed;
 import java.util.List;
 import com.example.CRUDG.entity.Doctor;
 import com.example.CRUDG.repository.DoctorRepository;
+import com.example.CRUDG.repository.PageStamp;
+import com.example.CRUDG.repository.VersionStamp;
+import com.example.CRUDG.repository.DoctorSummary;
 
 
 
 @Service
+@Timed("crudg.service")
 
 public class DoctorService {
     @Autowired
@@ -19,49 +36,164 @@ public class DoctorService {
     @Autowired
     private PasswordService passwordService;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Peticiones concurrentes con ids solapados comparten el mismo query
+    private final CoalescingLoader<DoctorSummary> summaryLoader = new CoalescingLoader<>(ids ->
+            doctorRepository.findByIdIn(ids).stream()
+                    .collect(Collectors.toMap(DoctorSummary::getId, Function.identity())));
+
+    @Autowired
+    private DoctorSpecialtyIndex specialtyIndex;
+
+    // Lo que se cachea se lee del primario (sin readOnly): leído de la réplica justo tras
+    // un @CacheEvict volvería a guardar la fila anterior a la escritura
+    @Cacheable(cacheNames = "doctorPages", key = "'all'")
+    @Transactional
     public List<Doctor> getAllDoctors() {
         return doctorRepository.findAll();
     }
 
+    // Página por cursor: filas con id > afterId, como entidad o como proyección
+    @Cacheable(cacheNames = "doctorPages", key = "{#afterId, #size, #type.simpleName}")
+    @Transactional
+    public <T> List<T> getDoctorsPage(long afterId, int size, Class<T> type) {
+        return doctorRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size), type);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DoctorSummary> getDoctorsByIds(Collection<Long> ids) {
+        return List.copyOf(summaryLoader.load(ids).values());
+    }
+
+    @Cacheable(cacheNames = "doctors", key = "#id", unless = "#result == null")
+    @Transactional
     public Optional<Doctor> getDoctorById(Long id) {
         return doctorRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getDoctorStamp(Long id) {
+        return doctorRepository.findStampById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public PageStamp getDoctorsPageStamp(long afterId, int size) {
+        return doctorRepository.findPageStamp(afterId, size);
+    }
+
+    /**
+     * Búsqueda por especialidad y/o prefijo de nombre, ordenada por nombre.
+     * Solo especialidad: se resuelve desde el índice en memoria; el resto va a MySQL
+     * usando los índices de tbl_doctor.
+     */
+    @Transactional(readOnly = true)
+    public List<?> searchDoctors(String specialty, String namePrefix, int page, int size) {
+        boolean bySpecialty = specialty != null && !specialty.isBlank();
+        boolean byName = namePrefix != null && !namePrefix.isBlank();
+        if (bySpecialty && !byName && specialtyIndex.isReady()) {
+            return specialtyIndex.findBySpecialty(specialty, page, size);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("name", "id"));
+        if (bySpecialty && byName) {
+            return doctorRepository.findBySpecialtyAndNameStartingWith(specialty.trim(), namePrefix.trim(), pageable);
+        }
+        if (bySpecialty) {
+            return doctorRepository.findBySpecialty(specialty.trim(), pageable);
+        }
+        return doctorRepository.findByNameStartingWith(byName ? namePrefix.trim() : "", pageable);
+    }
+
+    // El hash (BCrypt) se calcula antes de abrir la transacción: así no se retiene una
+    // conexión del pool mientras tanto, haya o no réplica configurada
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "doctors", key = "#result.id"),
+            @CacheEvict(cacheNames = {"doctorPages", "doctorEmails"}, allEntries = true)
+    })
     public Doctor saveOrUpdate(Doctor doctor) {
         // Hash the password before saving or updating
         doctor.setPassword(passwordService.hashPassword(doctor.getPassword()));
-        return doctorRepository.save(doctor);
+        return transactionTemplate.execute(status -> {
+            // Sin version en el cuerpo se toma la actual (último en escribir gana, como antes);
+            // un id que no existe se inserta como nuevo
+            if (doctor.getId() != null && doctor.getVersion() == null) {
+                doctorRepository.findStampById(doctor.getId()).ifPresentOrElse(
+                        stamp -> doctor.setVersion(stamp.getVersion()),
+                        () -> doctor.setId(null));
+            }
+            String action = doctor.getId() == null ? AuditEvent.CREATE : AuditEvent.UPDATE;
+            Doctor saved = doctorRepository.save(doctor);
+            auditLog.record(AuditEvent.DOCTOR, saved.getId(), action);
+            AfterCommit.run(() -> {
+                specialtyIndex.put(saved);
+                emailFilter.add(saved.getEmail());
+            });
+            return saved;
+        });
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "doctors", key = "#id"),
+            @CacheEvict(cacheNames = {"doctorPages", "doctorEmails"}, allEntries = true)
+    })
     public Doctor updateDoctor(Long id, Doctor updatedDoctor) {
-        return doctorRepository.findById(id).map(doctor -> {
+        // Hash the password before opening the transaction, only when a new password was provided
+        String newPassword = updatedDoctor.getPassword();
+        boolean passwordChanged = newPassword != null && !newPassword.isBlank();
+        if (passwordChanged) {
+            updatedDoctor.setPassword(passwordService.hashPassword(newPassword));
+        }
+        return transactionTemplate.execute(status -> doctorRepository.findById(id).map(doctor -> {
             doctor.setName(updatedDoctor.getName());
             doctor.setEmail(updatedDoctor.getEmail());
-            // Hash the password before updating, only when a new password was provided
-            String newPassword = updatedDoctor.getPassword();
-            if (newPassword != null && !newPassword.isBlank()) {
-                doctor.setPassword(passwordService.hashPassword(newPassword));
+            if (passwordChanged) {
+                doctor.setPassword(updatedDoctor.getPassword());
             }
-
-
-            
-            return doctorRepository.save(doctor);
+            Doctor saved = doctorRepository.save(doctor);
+            auditLog.record(AuditEvent.DOCTOR, saved.getId(), AuditEvent.UPDATE);
+            AfterCommit.run(() -> {
+                specialtyIndex.put(saved);
+                emailFilter.add(saved.getEmail());
+            });
+            return saved;
         }).orElseGet(() -> {
             // If doctor not found, save as new
-            updatedDoctor.setId(id);
-            // Hash the password before saving if provided
-            String newPassword = updatedDoctor.getPassword();
-            if (newPassword != null && !newPassword.isBlank()) {
-                updatedDoctor.setPassword(passwordService.hashPassword(newPassword));
-            }
-            return doctorRepository.save(updatedDoctor);
-        });
+            // IDENTITY asigna un id nuevo, igual que hacía merge sobre un id inexistente
+            updatedDoctor.setId(null);
+            updatedDoctor.setVersion(null);
+            Doctor saved = doctorRepository.save(updatedDoctor);
+            auditLog.record(AuditEvent.DOCTOR, saved.getId(), AuditEvent.CREATE);
+            AfterCommit.run(() -> {
+                specialtyIndex.put(saved);
+                emailFilter.add(saved.getEmail());
+            });
+            return saved;
+        }));
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = "doctors", key = "#id"),
+            @CacheEvict(cacheNames = {"doctorPages", "doctorEmails"}, allEntries = true)
+    })
     public void delete(Long id) {
-        doctorRepository.deleteById(id);
+        // Transacción dentro del método, como en saveOrUpdate: el @CacheEvict se aplica ya
+        // confirmado el DELETE y una lectura concurrente no vuelve a cachear la fila borrada
+        transactionTemplate.executeWithoutResult(status -> {
+            doctorRepository.deleteById(id);
+            AfterCommit.run(() -> specialtyIndex.remove(id));
+            auditLog.record(AuditEvent.DOCTOR, id, AuditEvent.DELETE);
+        });
     }
 
+    @Cacheable(cacheNames = "doctorEmails", key = "#email", unless = "#result == null")
+    @Transactional
     public Optional<Doctor> findByEmail(String email) {
     return doctorRepository.findByEmail(email);
 }
@@ -0,0 +1,98 @@
+package com.example.CRUDG.service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.CRUDG.entity.Doctor;
+import com.example.CRUDG.repository.DoctorRepository;
+import com.example.CRUDG.repository.DoctorSummary;
+
+/**
+ * Índice en memoria especialidad → doctores. Se carga al arrancar y DoctorService
+ * lo mantiene al día en cada alta, modificación y baja.
+ */
+@Component
+
+public class DoctorSpecialtyIndex {
+
+    public record Entry(Long id, String name, String specialty) {
+    }
+
+    private static final Comparator<Entry> BY_NAME = Comparator
+            .comparing(Entry::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Entry::id);
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    private final Map<String, Map<Long, Entry>> bySpecialty = new ConcurrentHashMap<>();
+    private final Map<Long, String> specialtyById = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (DoctorSummary doctor : doctorRepository.findAllBy(DoctorSummary.class)) {
+            put(doctor.getId(), doctor.getName(), doctor.getSpecialty());
+        }
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Doctor doctor) {
+        if (doctor == null || doctor.getId() == null) return;
+        put(doctor.getId(), doctor.getName(), doctor.getSpecialty());
+    }
+
+    public void put(Long id, String name, String specialty) {
+        String key = key(specialty);
+        String previous = specialtyById.put(id, key);
+        if (previous != null && !previous.equals(key)) {
+            removeFrom(previous, id);
+        }
+        bySpecialty.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(id, new Entry(id, name, specialty));
+    }
+
+    public void remove(Long id) {
+        String previous = specialtyById.remove(id);
+        if (previous != null) {
+            removeFrom(previous, id);
+        }
+    }
+
+    /**
+     * Doctores de una especialidad ordenados por nombre (página offset/size).
+     */
+    public List<Entry> findBySpecialty(String specialty, int page, int size) {
+        Map<Long, Entry> doctors = bySpecialty.get(key(specialty));
+        if (doctors == null) return List.of();
+        return doctors.values().stream()
+                .sorted(BY_NAME)
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+    }
+
+    private void removeFrom(String key, Long id) {
+        Map<Long, Entry> doctors = bySpecialty.get(key);
+        if (doctors != null) {
+            doctors.remove(id);
+        }
+    }
+
+    // MySQL compara sin distinguir mayúsculas: el índice en memoria hace lo mismo
+    private static String key(String specialty) {
+        return specialty == null ? "" : specialty.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.example.CRUDG.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Filtro de Bloom con los emails de tbl_patient, tbl_doctor y tbl_admin. Se carga al
+ * arrancar y los servicios añaden cada email que escriben (también la importación masiva).
+ *
+ * mightContain == false significa que el email no existe en ninguna tabla: el login lo
+ * rechaza sin consultar la BD y el alta de pacientes se ahorra la comprobación previa.
+ * true puede ser un falso positivo (≈ false-positive-rate) o un email ya borrado, porque
+ * un filtro de Bloom no admite bajas; en ese caso se consulta la BD como antes.
+ *
+ * Cada nodo solo añade sus propias altas: con varias instancias, un email dado de alta en
+ * otra sería un falso negativo (login rechazado) hasta la siguiente recarga. Por eso viene
+ * desactivado; activarlo (crudg.email-filter.enabled=true) solo con una instancia que
+ * escriba. Cada rebuild-interval-ms se reconstruye desde la BD, lo que además olvida los
+ * emails borrados.
+ */
+@Component
+
+public class EmailBloomFilter {
+
+    // Lectura en streaming (fetch size MIN_VALUE con MySQL) y contra el primario: el
+    // JdbcTemplate no abre transacción read-only, así que no se enruta a la réplica
+    private static final String ALL_EMAILS = """
+            SELECT email_address FROM tbl_patient
+            UNION ALL
+            SELECT email_address FROM tbl_doctor
+            UNION ALL
+            SELECT email_address FROM tbl_admin
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${crudg.email-filter.enabled:false}")
+    private boolean enabled;
+
+    @Value("${crudg.email-filter.expected-emails:2000000}")
+    private long expectedEmails;
+
+    @Value("${crudg.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Filtro en uso y, durante una recarga, el que se está llenando (add escribe en los dos)
+    private volatile AtomicLongArray bits;
+    private volatile AtomicLongArray building;
+    private int words;
+    private long bitMask;
+    private int hashes;
+    private volatile boolean ready;
+
+    private Counter rejected;
+    private Counter passed;
+
+    @PostConstruct
+    void init() {
+        // m = -n·ln(p) / ln(2)², redondeado a potencia de 2 para indexar con una máscara
+        double optimal = -expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long bitCount = Math.max(64, Long.highestOneBit((long) Math.ceil(optimal) - 1) << 1);
+        words = (int) (bitCount >>> 6);
+        // Desactivado no se reservan los bits (4 MB con los valores por defecto): nadie los lee
+        if (enabled) {
+            bits = new AtomicLongArray(words);
+        }
+        bitMask = bitCount - 1;
+        hashes = Math.max(1, (int) Math.round((double) bitCount / expectedEmails * Math.log(2)));
+
+        rejected = Counter.builder("crudg.email.filter").tag("outcome", "rejected")
+                .description("Emails descartados sin consultar la BD").register(meterRegistry);
+        passed = Counter.builder("crudg.email.filter").tag("outcome", "maybe")
+                .description("Emails que el filtro no pudo descartar").register(meterRegistry);
+        Gauge.builder("crudg.email.filter.bits", this, filter -> filter.words)
+                .description("Palabras de 64 bits del filtro").baseUnit("words").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) return;
+        load(bits);
+        ready = true;
+    }
+
+    // Las altas llegan en afterCommit y leen "building" antes de escribir en "bits": una que
+    // no lo vea ya estaba confirmada antes de empezar la lectura, así que la lectura la incluye
+    @Scheduled(initialDelayString = "${crudg.email-filter.rebuild-interval-ms:600000}",
+            fixedDelayString = "${crudg.email-filter.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled || !ready) return;
+        AtomicLongArray next = new AtomicLongArray(words);
+        building = next;
+        try {
+            load(next);
+            bits = next;
+        } finally {
+            building = null;
+        }
+    }
+
+    private void load(AtomicLongArray target) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(ALL_EMAILS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> add(target, rs.getString(1)));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void add(String email) {
+        if (!enabled) return;
+        // "building" primero: leído después, la recarga podría haber cambiado "bits" y vuelto a
+        // null entre medias, y el email solo quedaría en el filtro viejo
+        AtomicLongArray next = building;
+        AtomicLongArray current = bits;
+        add(current, email);
+        if (next != null && next != current) {
+            add(next, email);
+        }
+    }
+
+    private void add(AtomicLongArray target, String email) {
+        String key = key(email);
+        if (key == null) return;
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old;
+            do {
+                old = target.get(word);
+                if ((old & mask) != 0) break;
+            } while (!target.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    /**
+     * false = el email no está en ninguna de las tres tablas. Mientras el filtro se carga
+     * (o si está desactivado) siempre devuelve true.
+     */
+    public boolean mightContain(String email) {
+        if (!ready) return true;
+        String key = key(email);
+        if (key == null) return true;
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        AtomicLongArray bits = this.bits;
+        for (int i = 0; i < hashes; i++) {
+            long bit = (h1 + i * h2) & bitMask;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                rejected.increment();
+                return false;
+            }
+        }
+        passed.increment();
+        return true;
+    }
+
+    // La columna compara sin distinguir mayúsculas ni acentos (utf8mb4_0900_ai_ci) e
+    // ignora espacios finales: la clave tiene que colapsar lo mismo
+    static String key(String email) {
+        if (email == null) return null;
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) return null;
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) > 0x7F) {
+                return Normalizer.normalize(key, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            }
+        }
+        return key;
+    }
+
+    // FNV-1a de 64 bits terminado con el mezclador de MurmurHash3
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53a4e87L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example.CRUDG.service;
+
+/**
+ * Alta con un email que ya está registrado. Se traduce a 409.
+ */
+public class EmailTakenException extends RuntimeException {
+
+    public EmailTakenException(String email) {
+        super("El email " + email + " ya está registrado");
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.example.CRUDG.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.CRUDG.entity.Doctor;
+import com.example.CRUDG.entity.Patient;
+import com.example.CRUDG.repository.DoctorRepository;
+import com.example.CRUDG.repository.PatientRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+@Service
+@Timed("crudg.service")
+
+public class ExportService {
+
+    @Autowired
+    PatientRepository patientRepository;
+
+    @Autowired
+    DoctorRepository doctorRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void exportPatients(OutputStream out) throws IOException {
+        try (Stream<Patient> rows = patientRepository.streamAll()) {
+            writeNdjson(rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportDoctors(OutputStream out) throws IOException {
+        try (Stream<Doctor> rows = doctorRepository.streamAll()) {
+            writeNdjson(rows, out);
+        }
+    }
+
+    /**
+     * Escribe una fila JSON por línea. Cada entidad se desacopla del contexto de
+     * persistencia después de escribirla, así la memoria no crece con el número de filas.
+     */
+    private <T> void writeNdjson(Stream<T> rows, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            boolean any = false;
+            Iterator<T> it = rows.iterator();
+            while (it.hasNext()) {
+                T row = it.next();
+                writer.writeValue(generator, row);
+                entityManager.detach(row);
+                any = true;
+            }
+            if (any) generator.writeRaw('\n');
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.example.CRUDG.service;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva: totales y el estado de cada fila
+ * (row empieza en 1, en el orden en que llegó).
+ */
+public record ImportReport(int total, int inserted, int failed, List<RowResult> rows) {
+
+    public record RowResult(int row, String email, String status, Long id, String error) {
+
+        static RowResult ok(int row, String email, Long id) {
+            return new RowResult(row, email, "OK", id, null);
+        }
+
+        static RowResult error(int row, String email, String error) {
+            return new RowResult(row, email, "ERROR", null, error);
+        }
+    }
+
+    static ImportReport of(List<RowResult> rows) {
+        int inserted = (int) rows.stream().filter(r -> "OK".equals(r.status())).count();
+        return new ImportReport(rows.size(), inserted, rows.size() - inserted, rows);
+    }
+
+}
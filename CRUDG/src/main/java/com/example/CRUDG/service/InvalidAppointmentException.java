@@ -0,0 +1,12 @@
+package com.example.CRUDG.service;
+
+/**
+ * Datos de la cita incompletos o fecha/hora que no corresponde a un hueco. Se traduce a 400.
+ */
+public class InvalidAppointmentException extends RuntimeException {
+
+    public InvalidAppointmentException(String message) {
+        super(message);
+    }
+
+}
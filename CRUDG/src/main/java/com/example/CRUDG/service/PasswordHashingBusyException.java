@@ -0,0 +1,13 @@
+package com.example.CRUDG.service;
+
+/**
+ * Se lanza cuando el pool de BCrypt está saturado y la petición no cabe en la cola.
+ * Se traduce a 503 con Retry-After.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(Throwable cause) {
+        super("Servicio de contraseñas saturado", cause);
+    }
+
+}
@@ -1,31 +1,166 @@
 package com.example.CRUDG.service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.example.CRUDG.security.BcryptCostCalibrator;
+import com.example.CRUDG.security.PasswordEncoders;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
 @Service
+@Timed("crudg.service")
 
 public class PasswordService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    @Autowired
+    @Qualifier("importHashExecutor")
+    private ThreadPoolTaskExecutor importHashExecutor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BcryptCostCalibrator bcryptCostCalibrator;
+
+    private Timer hashTimer;
+    private Timer verifyTimer;
+    private Counter rejectedCounter;
+    private Counter rehashedCounter;
+    private Counter rehashSkippedCounter;
+
+    @PostConstruct
+    void initMetrics() {
+        hashTimer = Timer.builder("crudg.password.hash").tag("operation", "hash").register(meterRegistry);
+        verifyTimer = Timer.builder("crudg.password.hash").tag("operation", "verify").register(meterRegistry);
+        rejectedCounter = Counter.builder("crudg.password.rejected").register(meterRegistry);
+        rehashedCounter = Counter.builder("crudg.password.rehash").tag("outcome", "done").register(meterRegistry);
+        rehashSkippedCounter = Counter.builder("crudg.password.rehash").tag("outcome", "skipped").register(meterRegistry);
+    }
+
     /**
-     * Devuelve el hash de la contraseña. Si la contraseña ya parece un hash de BCrypt,
-     * la devuelve tal cual (evita re-hasheo).
+     * Devuelve el hash de la contraseña. Si la contraseña ya parece un hash ({bcrypt}... o
+     * BCrypt sin prefijo), la devuelve tal cual (evita re-hasheo).
      */
     public String hashPassword(String plainPassword) {
         if (plainPassword == null) return null;
-        // BCrypt hashes normalmente empiezan con $2a$ o $2b$ etc.
-        if (plainPassword.startsWith("$2a$") || plainPassword.startsWith("$2b$") || plainPassword.startsWith("$2y$")) {
+        if (PasswordEncoders.isEncoded(plainPassword)) {
             return plainPassword;
         }
-        return passwordEncoder.encode(plainPassword);
+        return runOnHashPool(hashTimer, () -> passwordEncoder.encode(plainPassword));
     }
 
     public boolean checkPassword(String plainPassword, String hashedPassword) {
         if (plainPassword == null || hashedPassword == null) return false;
-        return passwordEncoder.matches(plainPassword, hashedPassword);
+        return runOnHashPool(verifyTimer, () -> passwordEncoder.matches(plainPassword, hashedPassword));
+    }
+
+    /**
+     * true si el hash guardado debe rehacerse: sin prefijo {bcrypt} o con un coste distinto
+     * del calibrado para este nodo.
+     */
+    public boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null) return false;
+        return passwordEncoder.upgradeEncoding(hashedPassword)
+                || BcryptCostCalibrator.costOf(hashedPassword) != bcryptCostCalibrator.getCost();
+    }
+
+    /**
+     * Re-hash en segundo plano tras un login correcto: no alarga la respuesta. Si el pool
+     * está lleno se omite; se reintentará en el siguiente login.
+     */
+    public void rehashAsync(String plainPassword, Consumer<String> store) {
+        try {
+            passwordHashExecutor.execute(() -> {
+                long start = System.nanoTime();
+                String hash = passwordEncoder.encode(plainPassword);
+                hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                store.accept(hash);
+                rehashedCounter.increment();
+            });
+        } catch (TaskRejectedException e) {
+            rehashSkippedCounter.increment();
+        }
+    }
+
+    /**
+     * Hashea un lote de contraseñas en paralelo (importaciones masivas).
+     * Usa importHashExecutor para no ocupar el pool reservado al login; el orden del
+     * resultado es el de la entrada.
+     */
+    public List<String> hashPasswords(List<String> plainPasswords) {
+        List<Future<String>> futures = new ArrayList<>(plainPasswords.size());
+        for (String plain : plainPasswords) {
+            if (plain == null || PasswordEncoders.isEncoded(plain)) {
+                futures.add(CompletableFuture.completedFuture(plain));
+            } else {
+                futures.add(importHashExecutor.submit(() -> hashTimer.record(() -> passwordEncoder.encode(plain))));
+            }
+        }
+        List<String> hashes = new ArrayList<>(futures.size());
+        for (Future<String> future : futures) {
+            hashes.add(await(future));
+        }
+        return hashes;
+    }
+
+    /**
+     * Ejecuta el trabajo de BCrypt en el pool dedicado y espera el resultado.
+     * Si el pool y su cola están llenos falla enseguida con PasswordHashingBusyException.
+     */
+    private <T> T runOnHashPool(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = passwordHashExecutor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException(e);
+        }
+        return await(future);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el hash de la contraseña", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(cause);
+        }
     }
     
 }
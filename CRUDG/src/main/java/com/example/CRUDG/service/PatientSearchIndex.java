@@ -0,0 +1,477 @@
+package com.example.CRUDG.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.CRUDG.entity.Patient;
+import com.example.CRUDG.repository.PatientContact;
+import com.example.CRUDG.repository.PatientRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Índice invertido de trigramas sobre nombre, email y teléfono de los pacientes.
+ * Se carga al arrancar y PatientService lo mantiene al día en cada alta, cambio y baja.
+ *
+ * Todo en arrays primitivos: cada paciente es un número de documento (int), cada trigrama
+ * un long (3 chars de 16 bits) y cada lista de postings un int[] ordenado. Un cambio da un
+ * documento nuevo y marca el viejo como muerto; cuando hay demasiados muertos se compacta.
+ * La búsqueda cuenta, recorriendo las listas de los trigramas de la consulta, cuántos tiene
+ * cada documento y ordena por ese conteo; los ids resultantes se resuelven contra la base de datos.
+ */
+@Component
+
+public class PatientSearchIndex {
+
+    private static final int LOAD_PAGE = 5000;
+    private static final int MIN_QUERY_LENGTH = 3;
+    // Los conteos por documento son bytes: como mucho 98 trigramas por consulta
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Fracción mínima de trigramas de la consulta que debe contener un resultado
+    @Value("${crudg.search.min-match:0.75}")
+    private double minMatch;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Documentos: id del paciente y bit de vivo
+    private long[] docIds = new long[1024];
+    private long[] alive = new long[16];
+    private int docCount;
+    private int deadCount;
+    private final LongIntMap docById = new LongIntMap(1024);
+
+    // Trigrama -> lista de postings
+    private final LongIntMap listByTrigram = new LongIntMap(4096);
+    private int[][] postings = new int[1024][];
+    private int[] postingSizes = new int[1024];
+    private int listCount;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    void initMetrics() {
+        Gauge.builder("crudg.search.patients", this, PatientSearchIndex::size)
+                .description("Pacientes en el índice de búsqueda")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long afterId = 0;
+        List<PatientContact> page;
+        do {
+            page = patientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(LOAD_PAGE), PatientContact.class);
+            for (PatientContact patient : page) {
+                // Si ya lo indexó una escritura concurrente, esa versión es más nueva
+                index(patient.getId(), patient.getName(), patient.getEmailAddress(), patient.getPhone(), false);
+                afterId = patient.getId();
+            }
+        } while (page.size() == LOAD_PAGE);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Patient patient) {
+        if (patient == null || patient.getId() == null) return;
+        put(patient.getId(), patient.getName(), patient.getEmailAddress(), patient.getPhone());
+    }
+
+    public void put(Long id, String name, String email, String phone) {
+        index(id, name, email, phone, true);
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            int doc = docById.remove(id);
+            if (doc >= 0) kill(doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - deadCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids de pacientes que contienen (casi) todos los trigramas de la consulta, mejor
+     * puntuación primero. Consultas de menos de 3 caracteres útiles no devuelven nada.
+     */
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.length() > MAX_QUERY_LENGTH) normalized = normalized.substring(0, MAX_QUERY_LENGTH);
+        long[] trigrams = trigramsOf(normalized);
+        if (trigrams.length == 0 || limit <= 0) return List.of();
+        int minScore = Math.max(1, (int) Math.ceil(trigrams.length * minMatch));
+
+        lock.readLock().lock();
+        try {
+            int[][] lists = new int[trigrams.length][];
+            int[] sizes = new int[trigrams.length];
+            int n = 0;
+            for (long trigram : trigrams) {
+                int list = listByTrigram.get(trigram);
+                if (list >= 0 && postingSizes[list] > 0) {
+                    lists[n] = postings[list];
+                    sizes[n] = postingSizes[list];
+                    n++;
+                }
+            }
+            if (n < minScore) return List.of();
+            return topDocs(lists, sizes, n, minScore, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Conteo lineal: counts[doc] = trigramas de la consulta que tiene el documento. Un doc entra
+    // como candidato justo cuando alcanza minScore, así no hay que recorrer todo el arreglo
+    private List<Long> topDocs(int[][] lists, int[] sizes, int n, int minScore, int limit) {
+        byte[] counts = new byte[docCount];
+        int[] candidates = new int[64];
+        int candidateCount = 0;
+        for (int i = 0; i < n; i++) {
+            int[] docs = lists[i];
+            for (int j = 0; j < sizes[i]; j++) {
+                int doc = docs[j];
+                if (++counts[doc] == minScore) {
+                    if (candidateCount == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                    }
+                    candidates[candidateCount++] = doc;
+                }
+            }
+        }
+        TopK top = new TopK(limit);
+        for (int i = 0; i < candidateCount; i++) {
+            int doc = candidates[i];
+            if (isAlive(doc)) {
+                top.offer(doc, counts[doc]);
+            }
+        }
+        return top.ids(docIds);
+    }
+
+    private void index(Long id, String name, String email, String phone, boolean replace) {
+        long[] trigrams = trigramsOf(normalize(name), normalize(email), normalize(phone));
+        lock.writeLock().lock();
+        try {
+            int previous = docById.get(id);
+            if (previous >= 0) {
+                if (!replace) return;
+                kill(previous);
+            }
+            int doc = newDoc(id);
+            docById.put(id, doc);
+            for (long trigram : trigrams) {
+                int list = listByTrigram.get(trigram);
+                if (list < 0) {
+                    list = newList();
+                    listByTrigram.put(trigram, list);
+                }
+                append(list, doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int newDoc(long id) {
+        if (docCount == docIds.length) {
+            docIds = Arrays.copyOf(docIds, docCount * 2);
+            alive = Arrays.copyOf(alive, (docIds.length + 63) / 64);
+        }
+        int doc = docCount++;
+        docIds[doc] = id;
+        alive[doc >>> 6] |= 1L << doc;
+        return doc;
+    }
+
+    private void kill(int doc) {
+        alive[doc >>> 6] &= ~(1L << doc);
+        deadCount++;
+        if (deadCount > 10_000 && deadCount > docCount / 4) {
+            compact();
+        }
+    }
+
+    private boolean isAlive(int doc) {
+        return (alive[doc >>> 6] & (1L << doc)) != 0;
+    }
+
+    private int newList() {
+        if (listCount == postings.length) {
+            postings = Arrays.copyOf(postings, listCount * 2);
+            postingSizes = Arrays.copyOf(postingSizes, listCount * 2);
+        }
+        postings[listCount] = new int[4];
+        return listCount++;
+    }
+
+    private void append(int list, int doc) {
+        int[] docs = postings[list];
+        int size = postingSizes[list];
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+            postings[list] = docs;
+        }
+        docs[size] = doc;
+        postingSizes[list] = size + 1;
+    }
+
+    // Renumera los documentos vivos (conservando el orden) y limpia las listas de postings
+    private void compact() {
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (isAlive(doc)) {
+                docIds[live] = docIds[doc];
+                remap[doc] = live++;
+            } else {
+                remap[doc] = -1;
+            }
+        }
+        for (int list = 0; list < listCount; list++) {
+            int[] docs = postings[list];
+            int kept = 0;
+            for (int i = 0; i < postingSizes[list]; i++) {
+                int doc = remap[docs[i]];
+                if (doc >= 0) docs[kept++] = doc;
+            }
+            postingSizes[list] = kept;
+            if (kept < docs.length / 2) {
+                postings[list] = Arrays.copyOf(docs, Math.max(4, kept));
+            }
+        }
+        Arrays.fill(alive, 0L);
+        docById.clear();
+        for (int doc = 0; doc < live; doc++) {
+            alive[doc >>> 6] |= 1L << doc;
+            docById.put(docIds[doc], doc);
+        }
+        docCount = live;
+        deadCount = 0;
+    }
+
+    // Minúsculas, sin acentos y solo letras, dígitos, '@' y '.': "+52 (55) 1234" y "55 1234" comparten trigramas
+    static String normalize(String value) {
+        if (value == null || value.isEmpty()) return "";
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '@' || c == '.') {
+                out.append(Character.toLowerCase(c));
+            }
+        }
+        return out.toString();
+    }
+
+    // Trigramas distintos de cada campo, sin cruzar de un campo a otro
+    static long[] trigramsOf(String... fields) {
+        int total = 0;
+        for (String field : fields) {
+            total += Math.max(0, field.length() - 2);
+        }
+        long[] trigrams = new long[total];
+        int n = 0;
+        for (String field : fields) {
+            for (int i = 0; i + MIN_QUERY_LENGTH <= field.length(); i++) {
+                trigrams[n++] = ((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16) | field.charAt(i + 2);
+            }
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /** Los limit mejores (puntuación desc, documento más antiguo primero). */
+    private static final class TopK {
+        private final int[] docs;
+        private final int[] scores;
+        private int size;
+
+        TopK(int limit) {
+            docs = new int[limit];
+            scores = new int[limit];
+        }
+
+        // Montículo de mínimos: la raíz es el peor de los que se conservan
+        void offer(int doc, int score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(doc, score, docs[0], scores[0])) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        List<Long> ids(long[] docIds) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Integer.compare(scores[b], scores[a]) : Integer.compare(docs[a], docs[b]));
+            Long[] ids = new Long[size];
+            for (int i = 0; i < size; i++) ids[i] = docIds[docs[order[i]]];
+            return List.of(ids);
+        }
+
+        private static boolean better(int doc, int score, int otherDoc, int otherScore) {
+            return score != otherScore ? score > otherScore : doc < otherDoc;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (!better(docs[parent], scores[parent], docs[i], scores[i])) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) return;
+                int worst = left;
+                int right = left + 1;
+                if (right < size && better(docs[worst], scores[worst], docs[right], scores[right])) worst = right;
+                if (!better(docs[i], scores[i], docs[worst], scores[worst])) return;
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int d = docs[a];
+            docs[a] = docs[b];
+            docs[b] = d;
+            int s = scores[a];
+            scores[a] = scores[b];
+            scores[b] = s;
+        }
+    }
+
+    /** Mapa long -> int con direccionamiento abierto; -1 = ausente. Sin objetos por entrada. */
+    private static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private static final long REMOVED = Long.MIN_VALUE + 1;
+
+        private long[] keys;
+        private int[] values;
+        private int used;
+
+        LongIntMap(int capacity) {
+            allocate(Integer.highestOneBit(Math.max(16, capacity) - 1) << 1);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            used = 0;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) return values[i];
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        void put(long key, int value) {
+            if ((used + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int free = -1;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (k == REMOVED && free < 0) free = i;
+                if (k == EMPTY) {
+                    if (free < 0) {
+                        free = i;
+                        used++;
+                    }
+                    keys[free] = key;
+                    values[free] = value;
+                    return;
+                }
+            }
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == key) {
+                    keys[i] = REMOVED;
+                    return values[i];
+                }
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(keys, EMPTY);
+            used = 0;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY && oldKeys[i] != REMOVED) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+
+}
@@ -1,15 +1,31 @@
 package com.example.CRUDG.service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.micrometer.core.annotation.Timed;
 import com.example.CRUDG.entity.Patient;
+import com.example.CRUDG.entity.PatientTimelineEntry;
 import com.example.CRUDG.repository.PatientRepository;
+import com.example.CRUDG.repository.PatientTimelineRepository;
+import com.example.CRUDG.repository.PageStamp;
+import com.example.CRUDG.repository.VersionStamp;
+import com.example.CRUDG.repository.PatientSummary;
 
 
 
 @Service
+@Timed("crudg.service")
 
 
 public class PatientService {
@@ -19,48 +35,158 @@ public class PatientService {
     @Autowired
     private PasswordService passwordService;
 
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private PatientTimelineRepository timelineRepository;
+
+    @Autowired
+    private PatientSearchIndex searchIndex;
+
+    @Autowired
+    private EmailBloomFilter emailFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Peticiones concurrentes con ids solapados comparten el mismo query
+    private final CoalescingLoader<PatientSummary> summaryLoader = new CoalescingLoader<>(ids ->
+            patientRepository.findByIdIn(ids).stream()
+                    .collect(Collectors.toMap(PatientSummary::getId, Function.identity())));
 
+
+    @Transactional(readOnly = true)
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
 
+    // Página por cursor: filas con id > afterId, como entidad o como proyección
+    @Transactional(readOnly = true)
+    public <T> List<T> getPatientsPage(long afterId, int size, Class<T> type) {
+        return patientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size), type);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PatientSummary> getPatientsByIds(Collection<Long> ids) {
+        return List.copyOf(summaryLoader.load(ids).values());
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Patient> getPatientById(Long id) {
         return patientRepository.findById(id);
     }
 
+    // Historia clínica (citas, recetas y medicamentos) ya ordenada; before = cursor
+    @Transactional(readOnly = true)
+    public List<PatientTimelineEntry> getTimeline(Long patientId, LocalDateTime beforeAt, long beforeId, int size) {
+        return timelineRepository.findPage(patientId, beforeAt, beforeId, size);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<VersionStamp> getPatientStamp(Long id) {
+        return patientRepository.findStampById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public PageStamp getPatientsPageStamp(long afterId, int size) {
+        return patientRepository.findPageStamp(afterId, size);
+    }
+
+    // El hash (BCrypt) se calcula antes de abrir la transacción: así no se retiene una
+    // conexión del pool mientras tanto, haya o no réplica configurada
     public Patient saveOrUpdate(Patient patient) {
         // Hash the password before saving or updating
         patient.setPassword(passwordService.hashPassword(patient.getPassword()));
-        return patientRepository.save(patient);
+        return transactionTemplate.execute(status -> {
+            // Sin version en el cuerpo se toma la actual (último en escribir gana, como antes);
+            // un id que no existe se inserta como nuevo
+            if (patient.getId() != null && patient.getVersion() == null) {
+                patientRepository.findStampById(patient.getId()).ifPresentOrElse(
+                        stamp -> patient.setVersion(stamp.getVersion()),
+                        () -> patient.setId(null));
+            }
+            if (patient.getId() == null) {
+                checkEmailAvailable(patient.getEmailAddress());
+            }
+            String action = patient.getId() == null ? AuditEvent.CREATE : AuditEvent.UPDATE;
+            Patient saved = patientRepository.save(patient);
+            auditLog.record(AuditEvent.PATIENT, saved.getId(), action);
+            AfterCommit.run(() -> {
+                searchIndex.put(saved);
+                emailFilter.add(saved.getEmailAddress());
+            });
+            return saved;
+        });
     }
 
     public Patient updatePatient(Long id, Patient updatedPatient) {
-        return patientRepository.findById(id).map(patient -> {
+        // Hash the password before opening the transaction, only when a new password was provided
+        String newPassword = updatedPatient.getPassword();
+        boolean passwordChanged = newPassword != null && !newPassword.isBlank();
+        if (passwordChanged) {
+            updatedPatient.setPassword(passwordService.hashPassword(newPassword));
+        }
+        return transactionTemplate.execute(status -> patientRepository.findById(id).map(patient -> {
             patient.setName(updatedPatient.getName());
             patient.setEmailAddress(updatedPatient.getEmailAddress());
-            // Hash the password before updating
-            if (updatedPatient.getPassword() != null && !updatedPatient.getPassword().isBlank()) {
-                patient.setPassword(passwordService.hashPassword(updatedPatient.getPassword()));
+            if (passwordChanged) {
+                patient.setPassword(updatedPatient.getPassword());
             }
-            return patientRepository.save(patient);
+            Patient saved = patientRepository.save(patient);
+            auditLog.record(AuditEvent.PATIENT, saved.getId(), AuditEvent.UPDATE);
+            AfterCommit.run(() -> {
+                searchIndex.put(saved);
+                emailFilter.add(saved.getEmailAddress());
+            });
+            return saved;
         }).orElseGet(() -> {
             // If patient not found, save as new
-            updatedPatient.setId(id);
-            // Hash the password before saving
-            //updatedPatient.setPassword(passwordService.hashPassword(updatedPatient.getPassword()));
-            if (updatedPatient.getPassword() != null && !updatedPatient.getPassword().isBlank()) {
-                updatedPatient.setPassword(passwordService.hashPassword(updatedPatient.getPassword()));
-            }
-
-            return patientRepository.save(updatedPatient);
-        });
+            // IDENTITY asigna un id nuevo, igual que hacía merge sobre un id inexistente
+            updatedPatient.setId(null);
+            updatedPatient.setVersion(null);
+            checkEmailAvailable(updatedPatient.getEmailAddress());
+            Patient saved = patientRepository.save(updatedPatient);
+            auditLog.record(AuditEvent.PATIENT, saved.getId(), AuditEvent.CREATE);
+            AfterCommit.run(() -> {
+                searchIndex.put(saved);
+                emailFilter.add(saved.getEmailAddress());
+            });
+            return saved;
+        }));
     }
 
+    // Un email que el filtro no conoce es nuevo seguro: se inserta sin consultar antes.
+    // Si el filtro no lo descarta se comprueba en la tabla (la restricción única sigue
+    // cubriendo dos altas simultáneas con el mismo email)
+    private void checkEmailAvailable(String email) {
+        if (emailFilter.mightContain(email) && patientRepository.existsByEmailAddress(email)) {
+            throw new EmailTakenException(email);
+        }
+    }
 
+    @Transactional
     public void delete(Long id) {
         patientRepository.deleteById(id);
+        auditLog.record(AuditEvent.PATIENT, id, AuditEvent.DELETE);
+        AfterCommit.run(() -> searchIndex.remove(id));
+    }
+
+    public boolean isSearchReady() {
+        return searchIndex.isReady();
+    }
+
+    // Búsqueda por nombre, email o teléfono parcial: el índice ordena y la BD devuelve las filas
+    @Transactional(readOnly = true)
+    public List<Patient> search(String query, int limit) {
+        List<Long> ids = searchIndex.search(query, limit);
+        if (ids.isEmpty()) return List.of();
+        Map<Long, Patient> byId = patientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Patient> findByEmail(String email) {
     return patientRepository.findByEmailAddress(email);
 }
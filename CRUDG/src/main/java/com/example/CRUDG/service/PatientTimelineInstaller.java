@@ -0,0 +1,221 @@
+package com.example.CRUDG.service;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene tbl_patient_timeline con triggers de MySQL sobre tbl_appointment, tbl_treatment
+ * y tbl_treatment_medicine: así cada alta, cambio o baja actualiza solo su fila del
+ * historial, venga de CRUDG o de las APIs de citas y recetas.
+ *
+ * Al arrancar, y después cada crudg.timeline.check-interval-ms, crea los triggers que falten.
+ * Si el historial está vacío lo rellena entero; si no, reconstruye solo los tipos de fila
+ * cuyos triggers faltaban: treatments-api/tables.sql hace DROP TABLE de las recetas, lo que
+ * borra sus triggers, y lo escrito sin ellos quedaría desfasado. Varias instancias que
+ * arrancan a la vez se turnan con GET_LOCK, así que solo una crea triggers y rellena. Los borrados en cascada por FK no disparan triggers en MySQL, por
+ * eso al borrar una cita, receta o paciente se limpian también sus filas dependientes.
+ * Con binlog activo, el usuario de la aplicación necesita poder crear triggers
+ * (root, o log_bin_trust_function_creators=1).
+ */
+@Component
+
+public class PatientTimelineInstaller {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientTimelineInstaller.class);
+
+    private static final String LOCK_NAME = "crudg_timeline_install";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    private static final String APPOINTMENT = "APPOINTMENT";
+    private static final String TREATMENT = "TREATMENT";
+    private static final String MEDICINE = "MEDICINE";
+
+    private static final Map<String, String> TRIGGERS = new LinkedHashMap<>();
+
+    static {
+        TRIGGERS.put("trg_timeline_appointment_ai", """
+                CREATE TRIGGER trg_timeline_appointment_ai AFTER INSERT ON tbl_appointment FOR EACH ROW
+                INSERT INTO tbl_patient_timeline (patient_id, event_at, kind, source_id, parent_id, doctor_id, title, detail)
+                VALUES (NEW.patient_id, NEW.appointment_datetime, 'APPOINTMENT', NEW.id, NULL, NEW.doctor_id, NEW.status, NEW.reason)
+                """);
+        TRIGGERS.put("trg_timeline_appointment_au", """
+                CREATE TRIGGER trg_timeline_appointment_au AFTER UPDATE ON tbl_appointment FOR EACH ROW
+                UPDATE tbl_patient_timeline
+                SET patient_id = NEW.patient_id, event_at = NEW.appointment_datetime, doctor_id = NEW.doctor_id,
+                    title = NEW.status, detail = NEW.reason
+                WHERE kind = 'APPOINTMENT' AND source_id = NEW.id
+                """);
+        // BEFORE: las recetas de la cita (que se borran en cascada) todavía existen
+        TRIGGERS.put("trg_timeline_appointment_bd", """
+                CREATE TRIGGER trg_timeline_appointment_bd BEFORE DELETE ON tbl_appointment FOR EACH ROW
+                DELETE FROM tbl_patient_timeline
+                WHERE (kind = 'APPOINTMENT' AND source_id = OLD.id)
+                   OR (kind = 'TREATMENT' AND parent_id = OLD.id)
+                   OR (kind = 'MEDICINE' AND parent_id IN (SELECT t.id FROM tbl_treatment t WHERE t.appointment_id = OLD.id))
+                """);
+        TRIGGERS.put("trg_timeline_treatment_ai", """
+                CREATE TRIGGER trg_timeline_treatment_ai AFTER INSERT ON tbl_treatment FOR EACH ROW
+                INSERT INTO tbl_patient_timeline (patient_id, event_at, kind, source_id, parent_id, doctor_id, title, detail)
+                VALUES (NEW.patient_id, NEW.created_at, 'TREATMENT', NEW.id, NEW.appointment_id, NEW.doctor_id, LEFT(NEW.diagnosis, 255), NULL)
+                """);
+        TRIGGERS.put("trg_timeline_treatment_au", """
+                CREATE TRIGGER trg_timeline_treatment_au AFTER UPDATE ON tbl_treatment FOR EACH ROW
+                UPDATE tbl_patient_timeline
+                SET patient_id = NEW.patient_id, event_at = NEW.created_at, parent_id = NEW.appointment_id,
+                    doctor_id = NEW.doctor_id, title = LEFT(NEW.diagnosis, 255)
+                WHERE kind = 'TREATMENT' AND source_id = NEW.id
+                """);
+        TRIGGERS.put("trg_timeline_treatment_ad", """
+                CREATE TRIGGER trg_timeline_treatment_ad AFTER DELETE ON tbl_treatment FOR EACH ROW
+                DELETE FROM tbl_patient_timeline
+                WHERE (kind = 'TREATMENT' AND source_id = OLD.id) OR (kind = 'MEDICINE' AND parent_id = OLD.id)
+                """);
+        TRIGGERS.put("trg_timeline_medicine_ai", """
+                CREATE TRIGGER trg_timeline_medicine_ai AFTER INSERT ON tbl_treatment_medicine FOR EACH ROW
+                INSERT INTO tbl_patient_timeline (patient_id, event_at, kind, source_id, parent_id, doctor_id, title, detail)
+                SELECT t.patient_id, t.created_at, 'MEDICINE', NEW.id, NEW.treatment_id, t.doctor_id,
+                       NEW.medicine_name, CONCAT(NEW.frequency, ' / ', NEW.duration)
+                FROM tbl_treatment t WHERE t.id = NEW.treatment_id
+                """);
+        TRIGGERS.put("trg_timeline_medicine_au", """
+                CREATE TRIGGER trg_timeline_medicine_au AFTER UPDATE ON tbl_treatment_medicine FOR EACH ROW
+                UPDATE tbl_patient_timeline
+                SET parent_id = NEW.treatment_id, title = NEW.medicine_name, detail = CONCAT(NEW.frequency, ' / ', NEW.duration)
+                WHERE kind = 'MEDICINE' AND source_id = NEW.id
+                """);
+        TRIGGERS.put("trg_timeline_medicine_ad", """
+                CREATE TRIGGER trg_timeline_medicine_ad AFTER DELETE ON tbl_treatment_medicine FOR EACH ROW
+                DELETE FROM tbl_patient_timeline WHERE kind = 'MEDICINE' AND source_id = OLD.id
+                """);
+        TRIGGERS.put("trg_timeline_patient_ad", """
+                CREATE TRIGGER trg_timeline_patient_ad AFTER DELETE ON tbl_patient FOR EACH ROW
+                DELETE FROM tbl_patient_timeline WHERE patient_id = OLD.id
+                """);
+    }
+
+    // Tipos de fila que un trigger mantiene: si faltaba, esas filas pueden estar desfasadas
+    private static final Map<String, List<String>> KINDS_BY_TRIGGER = Map.of(
+            "trg_timeline_appointment_ai", List.of(APPOINTMENT),
+            "trg_timeline_appointment_au", List.of(APPOINTMENT),
+            "trg_timeline_appointment_bd", List.of(APPOINTMENT, TREATMENT, MEDICINE),
+            "trg_timeline_treatment_ai", List.of(TREATMENT),
+            "trg_timeline_treatment_au", List.of(TREATMENT),
+            "trg_timeline_treatment_ad", List.of(TREATMENT, MEDICINE),
+            "trg_timeline_medicine_ai", List.of(MEDICINE),
+            "trg_timeline_medicine_au", List.of(MEDICINE),
+            "trg_timeline_medicine_ad", List.of(MEDICINE),
+            "trg_timeline_patient_ad", List.of(APPOINTMENT, TREATMENT, MEDICINE));
+
+    // INSERT IGNORE: si un trigger ya insertó la fila mientras tanto, gana la del trigger
+    private static final Map<String, String> BACKFILL = new LinkedHashMap<>();
+
+    static {
+        BACKFILL.put(APPOINTMENT, """
+                INSERT IGNORE INTO tbl_patient_timeline (patient_id, event_at, kind, source_id, parent_id, doctor_id, title, detail)
+                SELECT a.patient_id, a.appointment_datetime, 'APPOINTMENT', a.id, NULL, a.doctor_id, a.status, a.reason
+                FROM tbl_appointment a
+                """);
+        BACKFILL.put(TREATMENT, """
+                INSERT IGNORE INTO tbl_patient_timeline (patient_id, event_at, kind, source_id, parent_id, doctor_id, title, detail)
+                SELECT t.patient_id, t.created_at, 'TREATMENT', t.id, t.appointment_id, t.doctor_id, LEFT(t.diagnosis, 255), NULL
+                FROM tbl_treatment t
+                """);
+        BACKFILL.put(MEDICINE, """
+                INSERT IGNORE INTO tbl_patient_timeline (patient_id, event_at, kind, source_id, parent_id, doctor_id, title, detail)
+                SELECT t.patient_id, t.created_at, 'MEDICINE', m.id, m.treatment_id, t.doctor_id,
+                       m.medicine_name, CONCAT(m.frequency, ' / ', m.duration)
+                FROM tbl_treatment_medicine m JOIN tbl_treatment t ON t.id = m.treatment_id
+                """);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${crudg.timeline.install-triggers:true}")
+    private boolean installTriggers;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void install() {
+        if (!installTriggers) return;
+        // Un fallo aquí (p. ej. sin permiso para crear triggers) no debe tumbar el arranque
+        try {
+            repair();
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron instalar los triggers del historial clínico", e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${crudg.timeline.check-interval-ms:300000}",
+            fixedDelayString = "${crudg.timeline.check-interval-ms:300000}")
+    public void recheck() {
+        install();
+    }
+
+    // GET_LOCK es de la sesión: todo va por la misma conexión física
+    private void repair() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(con, true));
+            Integer locked = session.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+            if (locked == null || locked != 1) {
+                // Otra instancia sigue instalando; la próxima comprobación verá el resultado
+                return null;
+            }
+            try {
+                repairLocked(session);
+            } finally {
+                session.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+            return null;
+        });
+    }
+
+    private void repairLocked(JdbcTemplate session) {
+        Set<String> existing = new HashSet<>(session.queryForList(
+                "SELECT TRIGGER_NAME FROM information_schema.TRIGGERS WHERE TRIGGER_SCHEMA = DATABASE()",
+                String.class));
+        Set<String> stale = new LinkedHashSet<>();
+        for (Map.Entry<String, String> trigger : TRIGGERS.entrySet()) {
+            if (!existing.contains(trigger.getKey())) {
+                session.execute(trigger.getValue());
+                stale.addAll(KINDS_BY_TRIGGER.get(trigger.getKey()));
+            }
+        }
+        if (stale.isEmpty()) return;
+
+        // Los triggers van primero: lo que se escriba durante el relleno no se pierde
+        Boolean empty = session.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM tbl_patient_timeline)", Boolean.class);
+        for (Map.Entry<String, String> backfill : BACKFILL.entrySet()) {
+            if (Boolean.TRUE.equals(empty)) {
+                session.update(backfill.getValue());
+            } else if (stale.contains(backfill.getKey())) {
+                // Filas escritas sin trigger (o de ids reutilizados tras un DROP TABLE): se rehacen.
+                // Mientras tanto ese tipo de fila desaparece un momento del historial
+                session.update("DELETE FROM tbl_patient_timeline WHERE kind = ?", backfill.getKey());
+                session.update(backfill.getValue());
+                log.info("Historial clínico: filas {} reconstruidas tras recrear sus triggers", backfill.getKey());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.example.CRUDG.service;
+
+/**
+ * El hueco pedido ya está reservado. Se traduce a 409.
+ */
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+
+}
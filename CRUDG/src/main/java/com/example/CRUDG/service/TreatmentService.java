@@ -0,0 +1,70 @@
+package com.example.CRUDG.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.annotation.Timed;
+
+import com.example.CRUDG.entity.Treatment;
+import com.example.CRUDG.repository.TreatmentRepository;
+import com.example.CRUDG.repository.TreatmentRow;
+
+/**
+ * Lectura de recetas. Cada página del historial es un solo query (recetas + medicamentos
+ * en filas planas) que aquí se agrupa por receta, en lugar de un query por receta.
+ */
+@Service
+@Timed("crudg.service")
+
+public class TreatmentService {
+
+    @Autowired
+    private TreatmentRepository treatmentRepository;
+
+    @Transactional(readOnly = true)
+    public List<TreatmentView> getPatientTreatments(Long patientId, LocalDateTime beforeAt, long beforeId, int size) {
+        return assemble(treatmentRepository.findPatientHistory(patientId, beforeAt, beforeId, size));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TreatmentView> getDoctorTreatments(Long doctorId, LocalDateTime beforeAt, long beforeId, int size) {
+        return assemble(treatmentRepository.findDoctorHistory(doctorId, beforeAt, beforeId, size));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Treatment> getTreatmentByAppointment(Long appointmentId) {
+        return treatmentRepository.findByAppointmentId(appointmentId);
+    }
+
+    // Las filas llegan ordenadas por receta; se conserva ese orden
+    private static List<TreatmentView> assemble(List<TreatmentRow> rows) {
+        Map<Long, TreatmentRow> headers = new LinkedHashMap<>();
+        Map<Long, List<TreatmentView.Medicine>> medicines = new LinkedHashMap<>();
+        for (TreatmentRow row : rows) {
+            headers.putIfAbsent(row.getTreatmentId(), row);
+            List<TreatmentView.Medicine> list = medicines.computeIfAbsent(row.getTreatmentId(), id -> new ArrayList<>());
+            if (row.getMedicineId() != null) {
+                list.add(new TreatmentView.Medicine(row.getMedicineId(), row.getMedicineName(),
+                        row.getFrequency(), row.getDuration()));
+            }
+        }
+        List<TreatmentView> result = new ArrayList<>(headers.size());
+        for (TreatmentRow h : headers.values()) {
+            result.add(new TreatmentView(h.getTreatmentId(), h.getAppointmentId(),
+                    h.getPatientId(), h.getPatientName(),
+                    h.getDoctorId(), h.getDoctorName(), h.getSpecialty(),
+                    h.getDiagnosis(), h.getCreatedAt(),
+                    List.copyOf(medicines.get(h.getTreatmentId()))));
+        }
+        return result;
+    }
+
+}
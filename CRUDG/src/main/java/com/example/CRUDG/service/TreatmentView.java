@@ -0,0 +1,18 @@
+package com.example.CRUDG.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Receta completa tal como la muestran las pantallas de historial.
+ */
+public record TreatmentView(Long id, Long appointmentId,
+                            Long patientId, String patientName,
+                            Long doctorId, String doctorName, String specialty,
+                            String diagnosis, LocalDateTime createdAt,
+                            List<Medicine> medicines) {
+
+    public record Medicine(Long id, String name, String frequency, String duration) {
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.CRUDG.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.CRUDG.entity.PatientTimelineEntry;
+import com.example.CRUDG.security.CurrentUser;
+import com.example.CRUDG.service.PatientService;
+
+import io.jsonwebtoken.Jwts;
+
+class KeysetPageTest {
+
+	private static final Long PATIENT = 3L;
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void cursorRoundTripsDateAndId() {
+		LocalDateTime at = LocalDateTime.of(2026, 11, 1, 9, 0, 0, 123_456_000);
+		KeysetPage.Cursor cursor = KeysetPage.cursor(new KeysetPage.Cursor(at, 42L).toString());
+		assertEquals(at, cursor.at());
+		assertEquals(42L, cursor.id());
+
+		// Segundos a cero: LocalDateTime los omite al escribir y los acepta al leer
+		LocalDateTime onTheMinute = LocalDateTime.of(2026, 11, 1, 9, 0);
+		assertEquals(onTheMinute, KeysetPage.cursor(new KeysetPage.Cursor(onTheMinute, 1L).toString()).at());
+	}
+
+	@Test
+	void missingCursorIsTheFirstPage() {
+		assertEquals(KeysetPage.Cursor.START, KeysetPage.cursor(null));
+		assertEquals(KeysetPage.Cursor.START, KeysetPage.cursor(" "));
+		assertNull(KeysetPage.Cursor.START.at());
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThrows(InvalidCursorException.class, () -> KeysetPage.cursor("garbage"));
+		assertThrows(InvalidCursorException.class, () -> KeysetPage.cursor("42"));
+		assertThrows(InvalidCursorException.class, () -> KeysetPage.cursor("2026-11-01T09:00_x"));
+	}
+
+	@Test
+	void timelinePagesCoverTiesWithoutGapsOrRepeats() {
+		// Varias filas con el mismo event_at: el id desempata entre páginas
+		LocalDateTime tie = LocalDateTime.of(2026, 11, 1, 9, 0, 0, 123_456_000);
+		List<PatientTimelineEntry> timeline = new ArrayList<>();
+		timeline.add(entry(1L, tie.minusDays(1)));
+		timeline.add(entry(2L, tie));
+		timeline.add(entry(3L, tie));
+		timeline.add(entry(4L, tie));
+		timeline.add(entry(5L, tie.plusDays(1)));
+		timeline.add(entry(6L, tie));
+		timeline.sort(Comparator.comparing(PatientTimelineEntry::getEventAt)
+				.thenComparing(PatientTimelineEntry::getId).reversed());
+
+		PatientService patientService = mock(PatientService.class);
+		when(patientService.getTimeline(eq(PATIENT), any(), anyLong(), anyInt())).thenAnswer(invocation ->
+				page(timeline, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+		PatientController controller = new PatientController();
+		ReflectionTestUtils.setField(controller, "patientService", patientService);
+		authenticate(CurrentUser.PATIENT, PATIENT);
+
+		List<Long> seen = new ArrayList<>();
+		String after = null;
+		int pages = 0;
+		do {
+			ResponseEntity<List<?>> response = controller.getTimeline(PATIENT, after, 2);
+			response.getBody().forEach(row -> seen.add(((PatientTimelineEntry) row).getId()));
+			after = response.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER);
+			pages++;
+		} while (after != null && pages < 10);
+
+		assertEquals(List.of(5L, 6L, 4L, 3L, 2L, 1L), seen);
+	}
+
+	// Lo que hace el WHERE (event_at, id) < (:beforeAt, :beforeId) sobre filas ya ordenadas
+	private static List<PatientTimelineEntry> page(List<PatientTimelineEntry> timeline, LocalDateTime beforeAt,
+			long beforeId, int size) {
+		return timeline.stream()
+				.filter(e -> beforeAt == null || e.getEventAt().isBefore(beforeAt)
+						|| (e.getEventAt().isEqual(beforeAt) && e.getId() < beforeId))
+				.limit(size)
+				.toList();
+	}
+
+	private static PatientTimelineEntry entry(Long id, LocalDateTime eventAt) {
+		PatientTimelineEntry entry = new PatientTimelineEntry();
+		entry.setId(id);
+		entry.setPatientId(PATIENT);
+		entry.setEventAt(eventAt);
+		return entry;
+	}
+
+	private static void authenticate(String role, Long id) {
+		UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated("user", null, List.of());
+		authentication.setDetails(Jwts.claims(Map.of("role", role, "id", id)));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+	}
+
+}
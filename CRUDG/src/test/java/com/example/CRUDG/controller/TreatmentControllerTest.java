@@ -0,0 +1,142 @@
+package com.example.CRUDG.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.CRUDG.security.CurrentUser;
+import com.example.CRUDG.service.TreatmentService;
+import com.example.CRUDG.service.TreatmentView;
+
+import io.jsonwebtoken.Jwts;
+
+class TreatmentControllerTest {
+
+	private static final Long PATIENT = 3L;
+	private static final Long DOCTOR = 7L;
+
+	private TreatmentService treatmentService;
+	private TreatmentController controller;
+	private final List<TreatmentView> history = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		// created_at sin fracciones de segundo (DATETIME): muchos empates en la misma carga
+		LocalDateTime tie = LocalDateTime.of(2026, 11, 5, 10, 0);
+		history.add(view(1L, tie.minusDays(1)));
+		history.add(view(2L, tie));
+		history.add(view(3L, tie));
+		history.add(view(4L, tie));
+		history.add(view(5L, tie));
+		history.add(view(6L, tie.plusHours(1)));
+		history.sort(Comparator.comparing(TreatmentView::createdAt).thenComparing(TreatmentView::id).reversed());
+
+		treatmentService = mock(TreatmentService.class);
+		when(treatmentService.getPatientTreatments(eq(PATIENT), any(), anyLong(), anyInt())).thenAnswer(invocation ->
+				page(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+		when(treatmentService.getDoctorTreatments(eq(DOCTOR), any(), anyLong(), anyInt())).thenAnswer(invocation ->
+				page(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+		controller = new TreatmentController();
+		ReflectionTestUtils.setField(controller, "treatmentService", treatmentService);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void patientHistoryPagesCoverTiesWithoutGapsOrRepeats() {
+		authenticate(CurrentUser.PATIENT, PATIENT);
+		assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), walk(after -> controller.getPatientTreatments(PATIENT, after, 2)));
+	}
+
+	@Test
+	void doctorHistoryUsesTheSameCursor() {
+		authenticate(CurrentUser.DOCTOR, DOCTOR);
+		assertEquals(List.of(6L, 5L, 4L, 3L, 2L, 1L), walk(after -> controller.getDoctorTreatments(DOCTOR, after, 4)));
+	}
+
+	@Test
+	void cursorCarriesTheLastRowsDateAndId() {
+		authenticate(CurrentUser.PATIENT, PATIENT);
+		ResponseEntity<List<?>> first = controller.getPatientTreatments(PATIENT, null, 3);
+		verify(treatmentService).getPatientTreatments(PATIENT, null, 0L, 3);
+		assertEquals("2026-11-05T10:00_4", first.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+
+		controller.getPatientTreatments(PATIENT, "2026-11-05T10:00_4", 3);
+		verify(treatmentService).getPatientTreatments(PATIENT, LocalDateTime.of(2026, 11, 5, 10, 0), 4L, 3);
+	}
+
+	@Test
+	void lastPageHasNoCursor() {
+		authenticate(CurrentUser.PATIENT, PATIENT);
+		assertNull(controller.getPatientTreatments(PATIENT, null, 10).getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	void anotherPatientsHistoryIsDenied() {
+		authenticate(CurrentUser.PATIENT, 99L);
+		assertThrows(AccessDeniedException.class, () -> controller.getPatientTreatments(PATIENT, null, 2));
+	}
+
+	private interface PageRequest {
+		ResponseEntity<List<?>> fetch(String after);
+	}
+
+	private static List<Long> walk(PageRequest request) {
+		List<Long> seen = new ArrayList<>();
+		String after = null;
+		int pages = 0;
+		do {
+			ResponseEntity<List<?>> response = request.fetch(after);
+			response.getBody().forEach(row -> seen.add(((TreatmentView) row).id()));
+			after = response.getHeaders().getFirst(KeysetPage.NEXT_CURSOR_HEADER);
+			pages++;
+		} while (after != null && pages < 10);
+		return seen;
+	}
+
+	// Lo que hace el WHERE (created_at, id) < (:beforeAt, :beforeId) sobre filas ya ordenadas
+	private List<TreatmentView> page(LocalDateTime beforeAt, long beforeId, int size) {
+		return history.stream()
+				.filter(t -> beforeAt == null || t.createdAt().isBefore(beforeAt)
+						|| (t.createdAt().isEqual(beforeAt) && t.id() < beforeId))
+				.limit(size)
+				.toList();
+	}
+
+	private static TreatmentView view(Long id, LocalDateTime createdAt) {
+		return new TreatmentView(id, 100 + id, PATIENT, "Paciente", DOCTOR, "Doctor", "General",
+				"diagnóstico " + id, createdAt, List.of());
+	}
+
+	private static void authenticate(String role, Long id) {
+		UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated("user", null, List.of());
+		authentication.setDetails(Jwts.claims(Map.of("role", role, "id", id)));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+	}
+
+}
@@ -0,0 +1,111 @@
+package com.example.CRUDG.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtFilterTest {
+
+	private SimpleMeterRegistry registry;
+	private JwtUtil jwtUtil;
+	private JwtFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		jwtUtil = new JwtUtil();
+		jwtUtil.initCache();
+		filter = new JwtFilter();
+		ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+		ReflectionTestUtils.setField(filter, "routeTable", new RouteTable());
+		ReflectionTestUtils.setField(filter, "meterRegistry", registry);
+		filter.initMetrics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void validTokenSetsRoleAndClaims() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request("/api/v1/treatment/patient/3", jwtUtil.generateToken(3L, "ana@example.com", "PATIENT")),
+				new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		assertEquals("ana@example.com", authentication.getName());
+		assertEquals(List.of("ROLE_PATIENT"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+		assertEquals(3L, CurrentUser.id());
+		assertEquals(1.0, registry.counter("crudg.jwt.filter", "outcome", "valid").count());
+	}
+
+	@Test
+	void invalidTokenOnProtectedRouteIsRejected() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request("/api/v1/treatment/patient/3", "not-a-token"), response, chain);
+
+		assertEquals(401, response.getStatus());
+		assertNull(chain.getRequest());
+		assertEquals(1.0, registry.counter("crudg.jwt.filter", "outcome", "invalid").count());
+	}
+
+	@Test
+	void invalidTokenOnPublicRouteIsIgnored() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request("/api/v1/auth/login", "not-a-token"), response, chain);
+
+		assertEquals(200, response.getStatus());
+		assertNotNull(chain.getRequest());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		assertEquals(0.0, registry.counter("crudg.jwt.filter", "outcome", "invalid").count());
+	}
+
+	@Test
+	void validTokenOnPublicRouteStillIdentifiesTheUser() throws Exception {
+		// La auditoría de un alta por una ruta pública registra quién la hizo
+		filter.doFilter(request("/api/v1/doctor", jwtUtil.generateToken(1L, "admin@example.com", "ADMIN")),
+				new MockHttpServletResponse(), new MockFilterChain());
+
+		assertEquals("admin@example.com", SecurityContextHolder.getContext().getAuthentication().getName());
+		assertEquals(1.0, registry.counter("crudg.jwt.filter", "outcome", "public").count());
+	}
+
+	@Test
+	void missingTokenPassesThroughForRouteTableToDecide() throws Exception {
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request("/api/v1/treatment/patient/3", null), new MockHttpServletResponse(), chain);
+
+		assertNotNull(chain.getRequest());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		assertEquals(1.0, registry.counter("crudg.jwt.filter", "outcome", "anonymous").count());
+	}
+
+	private static MockHttpServletRequest request(String path, String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		if (token != null) {
+			request.addHeader("Authorization", "Bearer " + token);
+		}
+		return request;
+	}
+
+}
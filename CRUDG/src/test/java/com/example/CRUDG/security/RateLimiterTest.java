@@ -0,0 +1,116 @@
+package com.example.CRUDG.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimiterTest {
+
+	private SimpleMeterRegistry registry;
+	private RateLimiter limiter;
+
+	@BeforeEach
+	void setUp() {
+		registry = new SimpleMeterRegistry();
+		limiter = new RateLimiter();
+		ReflectionTestUtils.setField(limiter, "meterRegistry", registry);
+		ReflectionTestUtils.setField(limiter, "loginPerMinute", 10L);
+		ReflectionTestUtils.setField(limiter, "loginBurst", 5L);
+		ReflectionTestUtils.setField(limiter, "loginEmailPerMinute", 5L);
+		ReflectionTestUtils.setField(limiter, "loginEmailBurst", 5L);
+		ReflectionTestUtils.setField(limiter, "writePerMinute", 120L);
+		ReflectionTestUtils.setField(limiter, "writeBurst", 30L);
+		ReflectionTestUtils.setField(limiter, "maxKeys", 100);
+		limiter.init();
+	}
+
+	@Test
+	void allowsTheBurstThenRejects() {
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1"), "intento " + i);
+		}
+		long wait = limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1");
+		// 10 por minuto: el siguiente token llega en como mucho 6 segundos
+		assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(6), "espera: " + wait);
+		assertEquals(5.0, registry.counter("crudg.ratelimit", "group", RateLimiter.LOGIN, "outcome", "allowed").count());
+		assertEquals(1.0, registry.counter("crudg.ratelimit", "group", RateLimiter.LOGIN, "outcome", "rejected").count());
+	}
+
+	@Test
+	void rejectedAttemptsDoNotConsumeTokens() {
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1");
+		}
+		long first = limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1");
+		long second = limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1");
+		// La espera no crece con cada rechazo
+		assertTrue(second <= first);
+	}
+
+	@Test
+	void keysAndGroupsAreIndependent() {
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1");
+		}
+		assertTrue(limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.1") > 0);
+		assertEquals(0, limiter.tryAcquire(RateLimiter.LOGIN, "10.0.0.2"));
+		assertEquals(0, limiter.tryAcquire(RateLimiter.WRITE, "10.0.0.1"));
+		assertEquals(0, limiter.tryAcquire(RateLimiter.LOGIN_EMAIL, "10.0.0.1"));
+	}
+
+	@Test
+	void bucketMapStaysBounded() {
+		for (int i = 0; i < 1_000; i++) {
+			limiter.tryAcquire(RateLimiter.WRITE, "client-" + i);
+		}
+		double keys = registry.get("crudg.ratelimit.keys").gauge().value();
+		assertTrue(keys <= 100, "buckets: " + keys);
+	}
+
+	@Test
+	void fullMapRejectsNewKeysInsteadOfForgettingLiveOnes() {
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, limiter.tryAcquire(RateLimiter.LOGIN, "client-" + i));
+		}
+		// Todos los buckets siguen activos (10 por minuto): la clave nueva espera
+		assertTrue(limiter.tryAcquire(RateLimiter.LOGIN, "newcomer") > 0);
+		// client-0 conserva su estado: le quedan 4 de la ráfaga de 5, no una ráfaga nueva
+		for (int i = 0; i < 4; i++) {
+			assertEquals(0, limiter.tryAcquire(RateLimiter.LOGIN, "client-0"));
+		}
+		assertTrue(limiter.tryAcquire(RateLimiter.LOGIN, "client-0") > 0);
+	}
+
+	@Test
+	void expiredBucketsMakeRoomForNewKeys() {
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire(RateLimiter.LOGIN, "client-" + i);
+		}
+		// Hora teórica en el pasado = bucket lleno, se puede olvidar
+		@SuppressWarnings("unchecked")
+		Map<String, AtomicLong> buckets = (Map<String, AtomicLong>) ReflectionTestUtils.getField(limiter, "buckets");
+		long past = System.nanoTime() - 1;
+		buckets.values().forEach(bucket -> bucket.set(past));
+
+		assertEquals(0, limiter.tryAcquire(RateLimiter.LOGIN, "newcomer"));
+		assertEquals(1, buckets.size());
+	}
+
+	@Test
+	void retryAfterRoundsUpToWholeSeconds() {
+		assertEquals(1, RateLimiter.retryAfterSeconds(1));
+		assertEquals(1, RateLimiter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1)));
+		assertEquals(2, RateLimiter.retryAfterSeconds(TimeUnit.SECONDS.toNanos(1) + 1));
+		assertEquals(6, RateLimiter.retryAfterSeconds(TimeUnit.MILLISECONDS.toNanos(5_500)));
+	}
+
+}
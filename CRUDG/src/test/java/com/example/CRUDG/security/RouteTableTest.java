@@ -0,0 +1,140 @@
+package com.example.CRUDG.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import com.example.CRUDG.security.RouteTable.Access;
+
+class RouteTableTest {
+
+	private final RouteTable routes = new RouteTable();
+
+	@Test
+	void publicRoutes() {
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/auth/login"));
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/patients/register"));
+		assertEquals(Access.PUBLIC, routes.accessFor("/actuator/health"));
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/patient/5"));
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/doctor"));
+	}
+
+	@Test
+	void exactRuleDoesNotCoverChildren() {
+		// "/api/v1/patients/register" no lleva "/**"
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/patients/register/extra"));
+	}
+
+	@Test
+	void mostSpecificRuleWins() {
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/actuator/metrics"));
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/treatment/patient/3"));
+		assertEquals(Access.roles("DOCTOR", "ADMIN"), routes.accessFor("/api/v1/treatment/doctor/3"));
+	}
+
+	@Test
+	void exportsAreAdminOnly() {
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/api/v1/patient/export"));
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/api/v1/doctor/export"));
+		assertFalse(granted(null, "/api/v1/patient/export"));
+		assertFalse(granted(token("DOCTOR"), "/api/v1/doctor/export"));
+		assertTrue(granted(token("ADMIN"), "/api/v1/patient/export"));
+		// El resto de /patient sigue abierto
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/patient/5"));
+	}
+
+	@Test
+	void bulkImportsAreAdminOnly() {
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/api/v1/patient/bulk"));
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/api/v1/doctor/bulk"));
+		assertFalse(granted(null, "/api/v1/doctor/bulk"));
+		assertFalse(granted(token("PATIENT"), "/api/v1/patient/bulk"));
+		assertTrue(granted(token("ADMIN"), "/api/v1/doctor/bulk"));
+	}
+
+	@Test
+	void batchLookupsAreAdminOnly() {
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/api/v1/patient/batch"));
+		assertEquals(Access.roles("ADMIN"), routes.accessFor("/api/v1/doctor/batch"));
+		assertFalse(granted(token("DOCTOR"), "/api/v1/patient/batch"));
+		assertTrue(granted(token("ADMIN"), "/api/v1/patient/batch"));
+	}
+
+	@Test
+	void appointmentsNeedATokenAndTheDoctorAgendaNeedsStaff() {
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/appointment"));
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/appointment/12/cancel"));
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/appointment/availability"));
+		assertEquals(Access.roles("DOCTOR", "ADMIN"), routes.accessFor("/api/v1/appointment/doctor/7"));
+		assertFalse(granted(null, "/api/v1/appointment/availability"));
+		assertTrue(granted(token("PATIENT"), "/api/v1/appointment/12"));
+		assertFalse(granted(token("PATIENT"), "/api/v1/appointment/doctor/7"));
+		assertTrue(granted(token("DOCTOR"), "/api/v1/appointment/doctor/7"));
+	}
+
+	@Test
+	void wildcardMatchesAnySingleSegment() {
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/patient/5/timeline"));
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/patient/abc/timeline"));
+		// Sin regla por debajo del comodín se vuelve al "/**" del padre
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/patient/5/timeline/extra"));
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/patient/5/other"));
+	}
+
+	@Test
+	void literalSegmentIsTriedBeforeTheWildcard() {
+		// "search" es un literal bajo /patient sin regla propia: el comodín no lo captura
+		// salvo que le siga "timeline"
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1/patient/search"));
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v1/patient/search/timeline"));
+	}
+
+	@Test
+	void unknownRoutesRequireAuthentication() {
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/"));
+		assertEquals(Access.AUTHENTICATED, routes.accessFor("/api/v2/patient"));
+	}
+
+	@Test
+	void repeatedAndTrailingSlashesAreIgnored() {
+		assertEquals(Access.PUBLIC, routes.accessFor("/api/v1//auth/login/"));
+		assertTrue(routes.isPublic("/actuator/health/"));
+	}
+
+	@Test
+	void authorizeChecksAuthenticationAndRoles() {
+		Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+				List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS")));
+		Authentication patient = token("PATIENT");
+		Authentication doctor = token("DOCTOR");
+
+		assertTrue(granted(anonymous, "/api/v1/auth/login"));
+		assertFalse(granted(anonymous, "/api/v1/treatment/patient/1"));
+		assertFalse(granted(null, "/api/v1/treatment/patient/1"));
+		assertTrue(granted(patient, "/api/v1/treatment/patient/1"));
+		assertFalse(granted(patient, "/api/v1/treatment/doctor/1"));
+		assertTrue(granted(doctor, "/api/v1/treatment/doctor/1"));
+	}
+
+	private static Authentication token(String role) {
+		return UsernamePasswordAuthenticationToken.authenticated("user", null,
+				List.of(new SimpleGrantedAuthority(JwtFilter.ROLE_PREFIX + role)));
+	}
+
+	private boolean granted(Authentication authentication, String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+		request.setServletPath(path);
+		return routes.authorize(() -> authentication, new RequestAuthorizationContext(request)).isGranted();
+	}
+
+}
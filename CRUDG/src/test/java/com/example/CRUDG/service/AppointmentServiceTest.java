@@ -0,0 +1,219 @@
+package com.example.CRUDG.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.CRUDG.entity.Appointment;
+import com.example.CRUDG.repository.AppointmentRepository;
+import com.example.CRUDG.security.CurrentUser;
+
+import io.jsonwebtoken.Jwts;
+
+class AppointmentServiceTest {
+
+	private static final Long DOCTOR = 7L;
+	private static final LocalDateTime WHEN = LocalDate.now().plusDays(1).atTime(10, 0);
+
+	private AppointmentRepository repository;
+	private AppointmentSlotIndex slotIndex;
+	private AppointmentService service;
+	private final AtomicLong nextId = new AtomicLong(100);
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(AppointmentRepository.class);
+		slotIndex = new AppointmentSlotIndex();
+		slotIndex.init();
+		service = new AppointmentService();
+		ReflectionTestUtils.setField(service, "appointmentRepository", repository);
+		ReflectionTestUtils.setField(service, "slotIndex", slotIndex);
+		ReflectionTestUtils.setField(service, "horizonDays", 180L);
+		// save asigna id a las filas nuevas, como IDENTITY
+		when(repository.save(any())).thenAnswer(invocation -> {
+			Appointment appointment = invocation.getArgument(0);
+			if (appointment.getId() == null) appointment.setId(nextId.incrementAndGet());
+			return appointment;
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void concurrentBookingsOfTheSameSlotSaveOnlyOne() throws Exception {
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			long patient = i + 1;
+			results.add(pool.submit(() -> {
+				start.await();
+				try {
+					service.book(request(patient));
+					return true;
+				} catch (SlotUnavailableException e) {
+					return false;
+				}
+			}));
+		}
+		start.countDown();
+		int booked = 0;
+		for (Future<Boolean> result : results) {
+			if (result.get(10, TimeUnit.SECONDS)) booked++;
+		}
+		pool.shutdown();
+
+		assertEquals(1, booked);
+		verify(repository, times(1)).save(any());
+		assertTrue(slotIndex.isTaken(DOCTOR, WHEN));
+	}
+
+	@Test
+	void takenSlotWithoutRowIsNotReclaimed() {
+		// Otra reserva tiene el bit y todavía no ha hecho commit: no hay fila
+		assertTrue(slotIndex.tryReserve(DOCTOR, WHEN));
+
+		assertThrows(SlotUnavailableException.class, () -> service.book(request(1L)));
+		verify(repository, never()).save(any());
+		assertTrue(slotIndex.isTaken(DOCTOR, WHEN));
+	}
+
+	@Test
+	void cancelledRowIsReusedForTheNextBooking() {
+		// Cancelada fuera de CRUDG: el bit sigue marcado y la clave única cubre la fila
+		Appointment cancelled = appointment(50L, 1L);
+		cancelled.setStatus(Appointment.CANCELLED);
+		slotIndex.mark(DOCTOR, WHEN);
+		when(repository.findByDoctorIdAndAppointmentDatetime(DOCTOR, WHEN)).thenReturn(Optional.of(cancelled));
+		doAnswer(invocation -> {
+			Appointment appointment = invocation.getArgument(0);
+			if (appointment.getId() == null) throw new DataIntegrityViolationException("uk_doctor_time");
+			return appointment;
+		}).when(repository).save(any());
+
+		Appointment booked = service.book(request(2L));
+
+		assertEquals(50L, booked.getId());
+		assertEquals(2L, booked.getPatientId());
+		assertEquals(Appointment.PENDING, booked.getStatus());
+		assertTrue(slotIndex.isTaken(DOCTOR, WHEN));
+	}
+
+	@Test
+	void failedSaveReleasesTheSlot() {
+		// Sin fila que choque con la clave única: fallaron las foreign keys
+		doThrow(new DataIntegrityViolationException("fk_patient")).when(repository).save(any());
+
+		assertThrows(InvalidAppointmentException.class, () -> service.book(request(1L)));
+		assertFalse(slotIndex.isTaken(DOCTOR, WHEN));
+	}
+
+	@Test
+	void cancelFreesTheSlotForTheNextBooking() {
+		authenticate(CurrentUser.PATIENT, 1L);
+		Appointment booked = service.book(request(1L));
+		when(repository.findById(booked.getId())).thenReturn(Optional.of(booked));
+
+		Appointment cancelled = service.cancel(booked.getId()).orElseThrow();
+
+		assertEquals(Appointment.CANCELLED, cancelled.getStatus());
+		assertFalse(slotIndex.isTaken(DOCTOR, WHEN));
+		assertEquals(2L, service.book(request(2L)).getPatientId());
+	}
+
+	@Test
+	void anotherPatientCannotCancel() {
+		Appointment booked = appointment(50L, 1L);
+		slotIndex.mark(DOCTOR, WHEN);
+		when(repository.findById(50L)).thenReturn(Optional.of(booked));
+		authenticate(CurrentUser.PATIENT, 2L);
+
+		assertThrows(AccessDeniedException.class, () -> service.cancel(50L));
+		assertEquals(Appointment.PENDING, booked.getStatus());
+		assertTrue(slotIndex.isTaken(DOCTOR, WHEN));
+		verify(repository, never()).save(any());
+	}
+
+	@Test
+	void staffCanCancelAnyAppointment() {
+		Appointment booked = appointment(50L, 1L);
+		slotIndex.mark(DOCTOR, WHEN);
+		when(repository.findById(50L)).thenReturn(Optional.of(booked));
+		authenticate(CurrentUser.DOCTOR, 9L);
+
+		assertEquals(Appointment.CANCELLED, service.cancel(50L).orElseThrow().getStatus());
+		assertFalse(slotIndex.isTaken(DOCTOR, WHEN));
+	}
+
+	@Test
+	void bookingsBeyondTheHorizonAreRejected() {
+		ReflectionTestUtils.setField(service, "horizonDays", 30L);
+		Appointment late = request(1L);
+		late.setAppointmentDatetime(LocalDate.now().plusDays(31).atTime(10, 0));
+
+		assertThrows(InvalidAppointmentException.class, () -> service.book(late));
+		// El día ni siquiera entra en el mapa de huecos
+		assertEquals(0, slotIndex.size());
+		verify(repository, never()).save(any());
+	}
+
+	private static Appointment request(Long patientId) {
+		Appointment appointment = new Appointment();
+		appointment.setPatientId(patientId);
+		appointment.setDoctorId(DOCTOR);
+		appointment.setAppointmentDatetime(WHEN);
+		appointment.setReason("control");
+		return appointment;
+	}
+
+	private static Appointment appointment(Long id, Long patientId) {
+		Appointment appointment = request(patientId);
+		appointment.setId(id);
+		appointment.setVersion(0L);
+		appointment.setStatus(Appointment.PENDING);
+		return appointment;
+	}
+
+	// Lo que deja JwtFilter: los claims del token en los details de la autenticación
+	private static void authenticate(String role, Long id) {
+		UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated("user", null, List.of());
+		authentication.setDetails(Jwts.claims(Map.of("role", role, "id", id)));
+		SecurityContextHolder.getContext().setAuthentication(authentication);
+	}
+
+}
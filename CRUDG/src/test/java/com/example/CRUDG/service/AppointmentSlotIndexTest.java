@@ -0,0 +1,129 @@
+package com.example.CRUDG.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AppointmentSlotIndexTest {
+
+	private static final Long DOCTOR = 7L;
+	private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+	private AppointmentSlotIndex index;
+
+	@BeforeEach
+	void setUp() {
+		// Jornada por defecto: 08:00-20:00 en huecos de 30 minutos
+		index = new AppointmentSlotIndex();
+		index.init();
+	}
+
+	@Test
+	void slotOfRejectsTimesOutsideTheGrid() {
+		assertEquals(0, index.slotOf(DAY.atTime(8, 0)));
+		assertEquals(23, index.slotOf(DAY.atTime(19, 30)));
+		assertEquals(-1, index.slotOf(DAY.atTime(7, 30)));
+		assertEquals(-1, index.slotOf(DAY.atTime(20, 0)));
+		assertEquals(-1, index.slotOf(DAY.atTime(9, 15)));
+		assertEquals(-1, index.slotOf(DAY.atTime(9, 0, 1)));
+	}
+
+	@Test
+	void tryReserveWinsOnlyOnce() {
+		LocalDateTime when = DAY.atTime(10, 0);
+		assertTrue(index.tryReserve(DOCTOR, when));
+		assertFalse(index.tryReserve(DOCTOR, when));
+		assertTrue(index.isTaken(DOCTOR, when));
+		// Otro doctor u otra hora no se ven afectados
+		assertTrue(index.tryReserve(DOCTOR + 1, when));
+		assertTrue(index.tryReserve(DOCTOR, DAY.atTime(10, 30)));
+	}
+
+	@Test
+	void tryReserveRejectsInvalidSlot() {
+		assertFalse(index.tryReserve(DOCTOR, DAY.atTime(10, 10)));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void clearFreesTheSlotAgain() {
+		LocalDateTime when = DAY.atTime(12, 0);
+		assertTrue(index.tryReserve(DOCTOR, when));
+		index.clear(DOCTOR, when);
+		assertFalse(index.isTaken(DOCTOR, when));
+		assertTrue(index.tryReserve(DOCTOR, when));
+	}
+
+	@Test
+	void clearOnlyTouchesItsOwnBit() {
+		index.mark(DOCTOR, DAY.atTime(8, 0));
+		index.mark(DOCTOR, DAY.atTime(8, 30));
+		index.clear(DOCTOR, DAY.atTime(8, 0));
+		assertFalse(index.isTaken(DOCTOR, DAY.atTime(8, 0)));
+		assertTrue(index.isTaken(DOCTOR, DAY.atTime(8, 30)));
+		// Un día sin reservas no se crea al limpiar
+		index.clear(DOCTOR, DAY.plusDays(1).atTime(8, 0));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void freeSlotsSkipsTakenSlots() {
+		index.mark(DOCTOR, DAY.atTime(8, 0));
+		index.mark(DOCTOR, DAY.atTime(19, 30));
+		List<LocalTime> free = index.freeSlots(DOCTOR, DAY);
+		assertEquals(22, free.size());
+		assertEquals(LocalTime.of(8, 30), free.get(0));
+		assertEquals(LocalTime.of(19, 0), free.get(free.size() - 1));
+	}
+
+	@Test
+	void concurrentReservationsHaveASingleWinner() throws Exception {
+		LocalDateTime when = DAY.atTime(15, 0);
+		int threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Boolean>> results = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					return index.tryReserve(DOCTOR, when);
+				}));
+			}
+			start.countDown();
+			int winners = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get(10, TimeUnit.SECONDS)) winners++;
+			}
+			assertEquals(1, winners);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void evictPastDaysKeepsTodayAndLater() {
+		index.mark(DOCTOR, LocalDate.now().minusDays(1).atTime(9, 0));
+		index.mark(DOCTOR, LocalDate.now().atTime(9, 0));
+		index.mark(DOCTOR, DAY.atTime(9, 0));
+		index.evictPastDays();
+		assertEquals(2, index.size());
+		assertFalse(index.isTaken(DOCTOR, LocalDate.now().minusDays(1).atTime(9, 0)));
+		assertTrue(index.isTaken(DOCTOR, DAY.atTime(9, 0)));
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.example.CRUDG.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditLogTest {
+
+	private SimpleMeterRegistry registry;
+	private AuditLog auditLog;
+	private final List<AuditEvent> rows = new CopyOnWriteArrayList<>();
+	private final AtomicBoolean failNextBatch = new AtomicBoolean();
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		doAnswer(invocation -> {
+			if (failNextBatch.getAndSet(false)) throw new IllegalStateException("sin conexión");
+			rows.addAll(invocation.getArgument(1));
+			return new int[0][];
+		}).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+		TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+		doAnswer(invocation -> {
+			invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+			return null;
+		}).when(transactionTemplate).executeWithoutResult(any());
+
+		registry = new SimpleMeterRegistry();
+		auditLog = new AuditLog();
+		ReflectionTestUtils.setField(auditLog, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(auditLog, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(auditLog, "meterRegistry", registry);
+		ReflectionTestUtils.setField(auditLog, "capacity", 8);
+		ReflectionTestUtils.setField(auditLog, "batchSize", 4);
+		ReflectionTestUtils.setField(auditLog, "flushMs", 5L);
+		ReflectionTestUtils.setField(auditLog, "backpressureMs", 5_000L);
+		auditLog.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		auditLog.stop();
+		SecurityContextHolder.clearContext();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void recordedEventsAreWrittenWithTheActor() throws InterruptedException {
+		SecurityContextHolder.getContext().setAuthentication(
+				UsernamePasswordAuthenticationToken.authenticated("admin@example.com", null, List.of()));
+		auditLog.record(AuditEvent.DOCTOR, 1L, AuditEvent.CREATE);
+		auditLog.record(AuditEvent.DOCTOR, 1L, AuditEvent.UPDATE);
+		auditLog.stop();
+
+		assertEquals(2, rows.size());
+		assertEquals(AuditEvent.UPDATE, rows.get(1).action());
+		assertEquals("admin@example.com", rows.get(0).actor());
+		assertEquals(2.0, registry.counter("crudg.audit.rows", "outcome", "written").count());
+	}
+
+	@Test
+	void rolledBackTransactionLeavesNoEvent() throws InterruptedException {
+		TransactionSynchronizationManager.initSynchronization();
+		auditLog.record(AuditEvent.PATIENT, 5L, AuditEvent.DELETE);
+		// Sin afterCommit: la transacción se revirtió
+		TransactionSynchronizationManager.clearSynchronization();
+
+		TransactionSynchronizationManager.initSynchronization();
+		auditLog.record(AuditEvent.PATIENT, 6L, AuditEvent.DELETE);
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+		auditLog.stop();
+
+		assertEquals(List.of(6L), rows.stream().map(AuditEvent::entityId).toList());
+	}
+
+	@Test
+	void recordAllWaitsForTheWriterInsteadOfDropping() throws InterruptedException {
+		// 100 eventos con una cola de 8: el productor espera al escritor
+		List<Long> ids = LongStream.rangeClosed(1, 100).boxed().toList();
+		auditLog.recordAll(AuditEvent.PATIENT, ids, AuditEvent.CREATE);
+		auditLog.stop();
+
+		assertEquals(ids, rows.stream().map(AuditEvent::entityId).toList());
+		assertEquals(0.0, registry.counter("crudg.audit.events", "outcome", "dropped").count());
+	}
+
+	@Test
+	void failedBatchIsCountedAndTheWriterKeepsGoing() throws InterruptedException {
+		failNextBatch.set(true);
+		auditLog.record(AuditEvent.DOCTOR, 1L, AuditEvent.CREATE);
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while (registry.counter("crudg.audit.rows", "outcome", "failed").count() == 0 && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		auditLog.record(AuditEvent.DOCTOR, 2L, AuditEvent.CREATE);
+		auditLog.stop();
+
+		assertEquals(1.0, registry.counter("crudg.audit.rows", "outcome", "failed").count());
+		assertEquals(List.of(2L), rows.stream().map(AuditEvent::entityId).toList());
+		assertTrue(registry.counter("crudg.audit.rows", "outcome", "written").count() >= 1);
+	}
+
+}
@@ -0,0 +1,113 @@
+package com.example.CRUDG.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AuditRingBufferTest {
+
+	@Test
+	void capacityIsRoundedUpToAPowerOfTwo() {
+		assertEquals(8, new AuditRingBuffer<Integer>(5).capacity());
+		assertEquals(8, new AuditRingBuffer<Integer>(8).capacity());
+		// Como mínimo 4 huecos
+		assertEquals(4, new AuditRingBuffer<Integer>(1).capacity());
+	}
+
+	@Test
+	void offerFailsWhenFullAndDrainFreesSpace() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(99));
+		assertEquals(4, buffer.size());
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(2, buffer.drainTo(drained, 2));
+		assertEquals(List.of(0, 1), drained);
+		assertTrue(buffer.offer(4));
+		assertTrue(buffer.offer(5));
+		assertFalse(buffer.offer(6));
+	}
+
+	@Test
+	void drainKeepsFifoOrderAcrossWrapAround() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+		List<Integer> drained = new ArrayList<>();
+		int next = 0;
+		// Muchas vueltas al anillo con lotes de tamaño variable
+		for (int round = 0; round < 100; round++) {
+			int count = 1 + round % 4;
+			for (int i = 0; i < count; i++) {
+				assertTrue(buffer.offer(next++));
+			}
+			buffer.drainTo(drained, 3);
+		}
+		while (buffer.drainTo(drained, 3) > 0) {
+		}
+		assertEquals(next, drained.size());
+		for (int i = 0; i < next; i++) {
+			assertEquals(i, drained.get(i));
+		}
+		assertEquals(0, buffer.size());
+	}
+
+	@Test
+	void drainOnEmptyBufferReturnsZero() {
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(0, buffer.drainTo(drained, 10));
+		assertTrue(drained.isEmpty());
+	}
+
+	@Test
+	void concurrentProducersLoseNothing() throws Exception {
+		int producers = 4;
+		int perProducer = 20_000;
+		AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(256);
+		ExecutorService pool = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			pool.execute(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					// Cola llena: se reintenta hasta que el consumidor libere hueco
+					while (!buffer.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+				done.countDown();
+			});
+		}
+
+		BitSet seen = new BitSet(producers * perProducer);
+		List<Integer> batch = new ArrayList<>();
+		int received = 0;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (received < producers * perProducer && System.nanoTime() < deadline) {
+			batch.clear();
+			buffer.drainTo(batch, 64);
+			for (Integer value : batch) {
+				assertFalse(seen.get(value), "duplicado: " + value);
+				seen.set(value);
+			}
+			received += batch.size();
+		}
+		pool.shutdown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertEquals(producers * perProducer, received);
+		assertEquals(producers * perProducer, seen.cardinality());
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.example.CRUDG.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EmailBloomFilterTest {
+
+	private EmailBloomFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = new EmailBloomFilter();
+		ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(filter, "enabled", true);
+		ReflectionTestUtils.setField(filter, "expectedEmails", 10_000L);
+		ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+		filter.init();
+	}
+
+	@Test
+	void keyCollapsesCaseAccentsAndSpaces() {
+		assertEquals("jose@example.com", EmailBloomFilter.key("  José@Example.COM "));
+		assertEquals("nunez@example.com", EmailBloomFilter.key("Núñez@example.com"));
+		assertEquals("plain@example.com", EmailBloomFilter.key("plain@example.com"));
+		assertNull(EmailBloomFilter.key(null));
+		assertNull(EmailBloomFilter.key("   "));
+	}
+
+	@Test
+	void notReadyAlwaysAnswersMaybe() {
+		assertTrue(filter.mightContain("nadie@example.com"));
+	}
+
+	@Test
+	void addedEmailsAreAlwaysFound() {
+		ReflectionTestUtils.setField(filter, "ready", true);
+		for (int i = 0; i < 5_000; i++) {
+			filter.add("user" + i + "@example.com");
+		}
+		for (int i = 0; i < 5_000; i++) {
+			assertTrue(filter.mightContain("user" + i + "@example.com"));
+		}
+		// Misma clave que la columna (sin mayúsculas ni acentos)
+		filter.add("José@example.com");
+		assertTrue(filter.mightContain(" jose@EXAMPLE.com"));
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheTarget() {
+		ReflectionTestUtils.setField(filter, "ready", true);
+		for (int i = 0; i < 10_000; i++) {
+			filter.add("user" + i + "@example.com");
+		}
+		int falsePositives = 0;
+		int probes = 20_000;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("other" + i + "@example.org")) falsePositives++;
+		}
+		// Objetivo 1 %; el tamaño se redondea hacia arriba, así que hay margen
+		assertTrue(falsePositives < probes * 0.02, "falsos positivos: " + falsePositives);
+	}
+
+	@Test
+	void blankEmailIsNeverRejected() {
+		ReflectionTestUtils.setField(filter, "ready", true);
+		assertTrue(filter.mightContain(null));
+		assertTrue(filter.mightContain(" "));
+	}
+
+	@Test
+	void disabledFilterAllocatesNothingAndAnswersMaybe() {
+		EmailBloomFilter disabled = new EmailBloomFilter();
+		ReflectionTestUtils.setField(disabled, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(disabled, "enabled", false);
+		ReflectionTestUtils.setField(disabled, "expectedEmails", 10_000L);
+		ReflectionTestUtils.setField(disabled, "falsePositiveRate", 0.01);
+		disabled.init();
+		disabled.warmUp();
+
+		assertNull(ReflectionTestUtils.getField(disabled, "bits"));
+		disabled.add("ana@example.com");
+		assertFalse(disabled.isReady());
+		assertTrue(disabled.mightContain("nadie@example.com"));
+	}
+
+	@Test
+	void rebuildForgetsDeletedEmailsAndKeepsConcurrentAdds() throws Exception {
+		List<String> table = new ArrayList<>(List.of("ana@example.com", "borrado@example.com"));
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		// Durante la lectura llega un alta confirmada (afterCommit) que la lectura no ve
+		AtomicReference<String> addedWhileLoading = new AtomicReference<>();
+		doAnswer(invocation -> {
+			if (addedWhileLoading.get() != null) filter.add(addedWhileLoading.get());
+			RowCallbackHandler handler = invocation.getArgument(1);
+			ResultSet rs = mock(ResultSet.class);
+			for (String email : table) {
+				when(rs.getString(1)).thenReturn(email);
+				handler.processRow(rs);
+			}
+			return null;
+		}).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+		ReflectionTestUtils.setField(filter, "jdbcTemplate", jdbcTemplate);
+
+		filter.warmUp();
+		assertTrue(filter.mightContain("borrado@example.com"));
+
+		table.remove("borrado@example.com");
+		addedWhileLoading.set("nueva@example.com");
+		filter.rebuild();
+
+		assertTrue(filter.mightContain("ana@example.com"));
+		assertTrue(filter.mightContain("nueva@example.com"));
+		assertFalse(filter.mightContain("borrado@example.com"));
+		assertNull(ReflectionTestUtils.getField(filter, "building"));
+	}
+
+}
@@ -0,0 +1,200 @@
+package com.example.CRUDG.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.CRUDG.repository.PatientContact;
+import com.example.CRUDG.repository.PatientRepository;
+
+class PatientSearchIndexTest {
+
+	private PatientSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new PatientSearchIndex();
+		ReflectionTestUtils.setField(index, "minMatch", 0.75);
+	}
+
+	@Test
+	void findsByPartialNameEmailOrPhone() {
+		index.put(1L, "María Fernández", "maria@example.com", "+52 (55) 1234 5678");
+		index.put(2L, "Juan Pérez", "juan@example.com", "55 9876 5432");
+
+		assertEquals(List.of(1L), index.search("fernan", 10));
+		assertEquals(List.of(2L), index.search("juan@exa", 10));
+		assertEquals(List.of(1L), index.search("1234 56", 10));
+		assertTrue(index.search("zzzz", 10).isEmpty());
+	}
+
+	@Test
+	void ignoresAccentsAndCase() {
+		index.put(1L, "José Álvarez", "jose@example.com", null);
+		assertEquals(List.of(1L), index.search("ALVAREZ", 10));
+		assertEquals(List.of(1L), index.search("álvarez", 10));
+	}
+
+	@Test
+	void shortQueriesReturnNothing() {
+		index.put(1L, "Ana", "ana@example.com", null);
+		assertTrue(index.search("an", 10).isEmpty());
+		assertTrue(index.search(" - ", 10).isEmpty());
+	}
+
+	@Test
+	void bestMatchComesFirstAndLimitApplies() {
+		index.put(1L, "Carla Gómez", null, null);
+		index.put(2L, "Carlos Gómez", null, null);
+		index.put(3L, "Carlota Gómez", null, null);
+
+		List<Long> results = index.search("carlos gomez", 10);
+		assertEquals(2L, results.get(0));
+		assertEquals(1, index.search("gomez", 1).size());
+	}
+
+	@Test
+	void updateReplacesThePreviousVersion() {
+		index.put(1L, "Pedro Ramírez", "pedro@example.com", null);
+		index.put(1L, "Pedro Salinas", "pedro@example.com", null);
+
+		assertTrue(index.search("ramirez", 10).isEmpty());
+		assertEquals(List.of(1L), index.search("salinas", 10));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void removeHidesThePatient() {
+		index.put(1L, "Lucía Torres", null, null);
+		index.remove(1L);
+		index.remove(99L);
+
+		assertTrue(index.search("torres", 10).isEmpty());
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void compactionKeepsLivePatientsSearchable() {
+		// Más de 10.000 bajas y más de un cuarto de los documentos: se compacta. Los ids
+		// además hacen crecer varias veces los mapas internos (LongIntMap)
+		int total = 12_000;
+		for (long id = 1; id <= total; id++) {
+			index.put(id, "Paciente " + id, "user" + id + "@test.com", null);
+		}
+		for (long id = 1; id <= 11_000; id++) {
+			index.remove(id);
+		}
+		assertEquals(1_000, index.size());
+
+		// "user11500@test" comparte casi todos los trigramas, pero el 500 ya no está
+		assertFalse(index.search("user500@test", 10).contains(500L));
+		assertEquals(11_500L, index.search("user11500@test.com", 10).get(0));
+		assertEquals(12_000L, index.search("user12000@test.com", 10).get(0));
+
+		// Tras compactar, altas, cambios y bajas siguen funcionando
+		index.put(11_500L, "Renombrado", "nuevo11500@test.com", null);
+		assertEquals(11_500L, index.search("nuevo11500@test.com", 10).get(0));
+		assertFalse(index.search("user11500@test.com", 10).contains(11_500L));
+		index.put(20_000L, "Otro", "otro20000@test.com", null);
+		assertEquals(List.of(20_000L), index.search("otro20000@test.com", 10));
+		index.remove(12_000L);
+		assertFalse(index.search("user12000@test.com", 10).contains(12_000L));
+		assertEquals(1_000, index.size());
+	}
+
+	@Test
+	void warmUpPagesThroughAllPatientsWithoutOverwritingNewerWrites() {
+		PatientRepository repository = mock(PatientRepository.class);
+		when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(), eq(PatientContact.class))).thenAnswer(invocation -> {
+			// Dos páginas: 5.000 pacientes y uno más
+			long afterId = invocation.getArgument(0);
+			int pageSize = invocation.<Limit>getArgument(1).max();
+			List<PatientContact> page = new ArrayList<>();
+			for (long id = afterId + 1; id <= Math.min(afterId + pageSize, 5_001); id++) {
+				page.add(contact(id, "Paciente " + id, "user" + id + "@test.com"));
+			}
+			return page;
+		});
+		ReflectionTestUtils.setField(index, "patientRepository", repository);
+		// Un alta confirmada mientras se cargaba: su versión es la buena
+		index.put(7L, "Renombrado Ahora", "nuevo7@test.com", null);
+
+		index.warmUp();
+
+		assertTrue(index.isReady());
+		assertEquals(5_001, index.size());
+		assertEquals(5_001L, index.search("user5001@test.com", 10).get(0));
+		assertEquals(List.of(7L), index.search("renombrado ahora", 10));
+		assertFalse(index.search("user7@test.com", 10).contains(7L));
+	}
+
+	@Test
+	void searchesRunWhileTheIndexIsWritten() throws Exception {
+		for (long id = 1; id <= 200; id++) {
+			index.put(id, "Estable " + id, "estable" + id + "@test.com", null);
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		// Un escritor da de alta, cambia y borra sin parar; los lectores buscan a la vez
+		Set<Long> live = new HashSet<>();
+		Future<?> writer = pool.submit(() -> {
+			for (int round = 0; round < 2_000; round++) {
+				long id = 1_000 + round % 50;
+				index.put(id, "Temporal " + round, "temp" + round + "@test.com", null);
+				live.add(id);
+				if (round % 3 == 0) {
+					index.remove(id);
+					live.remove(id);
+				}
+			}
+			writing.set(false);
+		});
+		List<Future<Integer>> readers = new ArrayList<>();
+		for (int r = 0; r < 3; r++) {
+			readers.add(pool.submit(() -> {
+				int searches = 0;
+				while (writing.get() || searches == 0) {
+					assertEquals(42L, index.search("estable42@test.com", 5).get(0));
+					searches++;
+				}
+				return searches;
+			}));
+		}
+		writer.get(30, TimeUnit.SECONDS);
+		for (Future<Integer> reader : readers) {
+			assertTrue(reader.get(30, TimeUnit.SECONDS) > 0);
+		}
+		pool.shutdown();
+		assertEquals(200 + live.size(), index.size());
+	}
+
+	private static PatientContact contact(long id, String name, String email) {
+		return new PatientContact() {
+			public Long getId() { return id; }
+			public String getName() { return name; }
+			public String getEmailAddress() { return email; }
+			public String getPhone() { return null; }
+		};
+	}
+
+}
@@ -0,0 +1,10 @@
+-- Se ejecuta una sola vez, al crear el volumen de la réplica.
+-- Replica desde el servicio 'mysql' usando GTID (posición automática).
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'root',
+    SOURCE_PASSWORD = 'root',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;